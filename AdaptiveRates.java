@@ -0,0 +1,186 @@
+/***********************************************************************************************************
+
+	AdaptiveRates class adjusts the crossover and mutation probabilities while the genetic algorithm runs.
+
+	Generation-level rates are updated after every generation from three convergence signals:
+	the success rate of the offspring (1/5th success rule), the trend of the average penalty and
+	the number of generations without improvement of the best penalty, together with the diversity
+	of the population. When per-individual rates are enabled, the generation-level rates are further
+	scaled for each pair of parents as proposed by Srinivas and Patnaik, so that good parents are
+	disrupted less than poor ones.
+
+	Date:	 2026
+***********************************************************************************************************/
+
+public class AdaptiveRates {
+
+	// step used to shrink or grow the rates (Schwefel's constant for the 1/5th rule)
+	private static final double STEP = 0.85;
+	// target success rate of the 1/5th rule
+	private static final double TARGET_SUCCESS = 0.2;
+
+	// bounds of the adapted rates, widened to the initial rates outside them
+	private double min_cross = 0.5;
+	private double max_cross = 1.0;
+	private double min_mut = 0.001;
+	private double max_mut = 0.5;
+
+	// generations without improvement before exploration is forced
+	private int stagnation_limit = 10;
+	// diversity under which the population is considered collapsed
+	private double diversity_floor = 0.05;
+
+	private double base_cross;	// initial crossover probability
+	private double p_cross;	// generation-level crossover probability
+	private double p_mut;	// generation-level mutation probability
+	private boolean per_individual;
+
+	private int best_penalty;	// best penalty found so far
+	private int gen_best;		// best penalty of the current generation
+	private double avg_penalty;	// average penalty of the current generation
+	private double diversity;
+	private int stagnation;		// generations since the best penalty last improved
+
+	public AdaptiveRates(double p_cross, double p_mut, boolean per_individual) {
+
+		// start from the given rates, the bounds are widened to keep them
+		this.min_cross = Math.min(min_cross, p_cross);
+		this.max_cross = Math.max(max_cross, p_cross);
+		this.min_mut = Math.min(min_mut, p_mut);
+		this.max_mut = Math.max(max_mut, p_mut);
+		this.base_cross = p_cross;
+		this.p_cross = p_cross;
+		this.p_mut = p_mut;
+		this.per_individual = per_individual;
+		this.best_penalty = Integer.MAX_VALUE;
+		this.avg_penalty = -1;
+		this.diversity = 1;
+		this.stagnation = 0;
+	}
+
+	/**
+	 * Updates the generation-level rates after a generation has been evaluated and sorted.
+	 *
+	 * The mutation rate follows the 1/5th success rule: if more than one offspring in five is better
+	 * than its best parent the mutation rate is increased to take larger steps, otherwise it is reduced.
+	 * A worsening average penalty reduces the crossover rate, while stagnation or a collapse of the
+	 * diversity pushes both rates up to restore exploration.
+	 *
+	 * @param pop the new population, sorted in descending order of penalty cost
+	 * @param successes the number of offspring with lower penalty than their best parent
+	 * @param diversity the gene entropy of the new population (see Diversity)
+	 */
+	public void update(Population pop, int successes, double diversity) {
+
+		int popSize = pop.getPopulationSize();
+		this.gen_best = pop.getIndividual(popSize-1).getTotalPenalty();
+
+		double sum = 0;
+		for(int i = 0; i < popSize; i++)
+			sum += pop.getIndividual(i).getTotalPenalty();
+		double avg = sum/popSize;
+
+		// stagnation length
+		if(gen_best < best_penalty) {
+			best_penalty = gen_best;
+			stagnation = 0;
+		} else
+			stagnation++;
+
+		// 1/5th success rule
+		if((double) successes/popSize > TARGET_SUCCESS)
+			p_mut /= STEP;
+		else
+			p_mut *= STEP;
+
+		// penalty trend - a rising average means offspring are disrupted too often,
+		// otherwise the crossover rate relaxes back to its initial value
+		if(avg_penalty >= 0 && avg > avg_penalty)
+			p_cross *= STEP;
+		else
+			p_cross += (base_cross - p_cross) * (1 - STEP);
+
+		// stagnation or diversity collapse - force exploration
+		this.diversity = diversity;
+		if(stagnation >= stagnation_limit || diversity < diversity_floor) {
+			p_mut /= STEP * STEP;
+			p_cross /= STEP;
+		}
+
+		p_cross = clamp(p_cross, min_cross, max_cross);
+		p_mut = clamp(p_mut, min_mut, max_mut);
+		avg_penalty = avg;
+	}
+
+	/**
+	 * Returns the crossover probability for a pair of parents.
+	 * With per-individual rates, the probability is scaled by how close the better parent is to the best
+	 * individual of the generation (Srinivas-Patnaik), so the best parents tend to pass unchanged.
+	 *
+	 * @param id1 The first parent individual.
+	 * @param id2 The second parent individual.
+	 * @return the crossover probability
+	 */
+	public double crossRate(Individual id1, Individual id2) {
+
+		if(!per_individual)
+			return p_cross;
+		int f = Math.min(id1.getTotalPenalty(), id2.getTotalPenalty());
+		return Math.max(min_cross, p_cross * scale(f));
+	}
+
+	/**
+	 * Returns the mutation probability for the offspring of a pair of parents.
+	 * The offspring has not been evaluated yet, so the penalty of its better parent is used instead.
+	 *
+	 * @param id1 The first parent individual.
+	 * @param id2 The second parent individual.
+	 * @return the mutation probability
+	 */
+	public double mutRate(Individual id1, Individual id2) {
+
+		if(!per_individual)
+			return p_mut;
+		int f = Math.min(id1.getTotalPenalty(), id2.getTotalPenalty());
+		return Math.max(min_mut, p_mut * scale(f));
+	}
+
+	// Srinivas-Patnaik scaling for minimisation: 0 at the best penalty, 1 at or above the average
+	private double scale(int f) {
+
+		if(avg_penalty < 0 || f >= avg_penalty || avg_penalty <= gen_best)
+			return 1;
+		return (f - gen_best)/(avg_penalty - gen_best);
+	}
+
+	private static double clamp(double value, double min, double max) {
+		return Math.max(min, Math.min(max, value));
+	}
+
+	/*********************************************
+	* Setters and Getters
+	*********************************************/
+	public double getCrossRate() {
+		return p_cross;
+	}
+
+	public double getMutRate() {
+		return p_mut;
+	}
+
+	public int getStagnation() {
+		return stagnation;
+	}
+
+	public double getDiversity() {
+		return diversity;
+	}
+
+	public void setStagnationLimit(int stagnation_limit) {
+		this.stagnation_limit = stagnation_limit;
+	}
+
+	public void setDiversityFloor(double diversity_floor) {
+		this.diversity_floor = diversity_floor;
+	}
+}
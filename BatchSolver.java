@@ -0,0 +1,226 @@
+/***********************************************************************************************************
+
+	BatchSolver solves many independent instances (e.g. the wards of a hospital) concurrently.
+
+	The instances are given as a directory of instance files (*.whpp, *.nsp) or as a manifest listing one
+	instance file per line. Every instance is solved by its own GeneticAlgorithm, which runs in time
+	slices of a few generations on a pool of workers with one FIFO queue: after each slice the run is
+	queued again behind the other instances, so the CPU is shared fairly and small instances are not
+	held behind big ones. The instances are started from the smallest to the largest.
+
+	The best schedule of every instance is written to <output>/<instance>.result and the aggregate
+	throughput (instances per minute) is reported at the end. Instances with the same name (e.g. from
+	two subdirectories listed in a manifest) are told apart by a suffix: <instance>-2.result, and so on.
+
+	Usage: java BatchSolver <directory|manifest> [-o <output>] [-w <workers>] [-i <popSize> <iterMax> <pCross> <pMut>]
+							[-t <seconds>] [-p <targetPenalty>] [-s <stagnationGenerations>]
+
+	Date:	 2026
+***********************************************************************************************************/
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class BatchSolver {
+
+	// wall-clock length of one time slice of a run in milliseconds
+	private static final long SLICE = 50;
+
+	private final ThreadPoolExecutor pool;
+	private final Path output;
+	private CountDownLatch pending;
+
+	// parameters of every run
+	private int popSize = 1000;
+	private int iter_max = 200;
+	private double p_cross = 0.85;
+	private double p_mut = 0.015;
+	private double time_budget = 0;
+	private int target_penalty = 0;
+	private int stagnation_limit = 0;
+
+	public BatchSolver(int workers, Path output) {
+
+		// one shared FIFO queue, so that a run queued again waits behind the other runs (a worker of a
+		// fork-join pool would take a task it queues itself first, and run the same instance to the end)
+		this.pool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+		this.output = output;
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+
+		if(args.length < 1) {
+			System.out.println("Usage: java BatchSolver <directory|manifest> [-o <output>] [-w <workers>]"
+							+ " [-i <popSize> <iterMax> <pCross> <pMut>] [-t <seconds>] [-p <targetPenalty>] [-s <stagnationGenerations>]");
+			return;
+		}
+
+		Path output = Path.of("results");
+		int workers = Runtime.getRuntime().availableProcessors();
+		List<String> options = new ArrayList<>();
+		for(int a = 1; a < args.length; a++) {
+			if(args[a].equals("-o"))
+				output = Path.of(args[++a]);
+			else if(args[a].equals("-w"))
+				workers = Integer.parseInt(args[++a]);
+			else
+				options.add(args[a]);
+		}
+
+		BatchSolver batch = new BatchSolver(workers, output);
+		for(int a = 0; a < options.size(); a++) {
+			if(options.get(a).equals("-i")) {
+				batch.popSize = Integer.parseInt(options.get(++a));
+				batch.iter_max = Integer.parseInt(options.get(++a));
+				batch.p_cross = Double.parseDouble(options.get(++a));
+				batch.p_mut = Double.parseDouble(options.get(++a));
+			} else if(options.get(a).equals("-t"))
+				batch.time_budget = Double.parseDouble(options.get(++a));
+			else if(options.get(a).equals("-p"))
+				batch.target_penalty = Integer.parseInt(options.get(++a));
+			else if(options.get(a).equals("-s"))
+				batch.stagnation_limit = Integer.parseInt(options.get(++a));
+		}
+
+		batch.solve(instances(Path.of(args[0])));
+	}
+
+	/**
+	 * Reads the instances of a directory (every *.whpp and *.nsp file, see InstanceLoader) or of a
+	 * manifest file, which lists one instance file per line, relative to the manifest.
+	 *
+	 * @param source the directory or the manifest
+	 * @return the instances
+	 * @throws IOException if an instance cannot be read
+	 */
+	public static List<Instance> instances(Path source) throws IOException {
+
+		List<Path> files;
+		if(Files.isDirectory(source)) {
+			try(Stream<Path> list = Files.list(source)) {
+				files = list.filter(InstanceLoader::isInstance).sorted().collect(Collectors.toList());
+			}
+		} else {
+			files = new ArrayList<>();
+			Path dir = source.toAbsolutePath().getParent();
+			for(String line : Files.readAllLines(source)) {
+				line = line.trim();
+				if(!line.isEmpty() && !line.startsWith("#"))
+					files.add(dir.resolve(line));
+			}
+		}
+
+		List<Instance> instances = new ArrayList<>();
+		for(Path file : files)
+			instances.add(Instance.read(file));
+		return instances;
+	}
+
+	/**
+	 * Solves all the instances and waits until every result has been written.
+	 *
+	 * @param instances the instances to solve
+	 * @throws IOException if the output directory cannot be created
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public void solve(List<Instance> instances) throws IOException, InterruptedException {
+
+		Files.createDirectories(output);
+		pending = new CountDownLatch(instances.size());
+
+		// a result file per instance, in the order of the corpus
+		List<Run> order = new ArrayList<>();
+		Set<String> used = new HashSet<>();
+		for(Instance instance : instances) {
+			String result = instance.getName();
+			for(int n = 2; !used.add(result); n++)
+				result = instance.getName() + "-" + n;
+			order.add(new Run(instance, result));
+		}
+		order.sort(Comparator.comparingLong(run -> (long) run.ga.getInstance().getEmployees() * run.ga.getInstance().getDays()));
+
+		System.out.println("Solving " + order.size() + " instances on " + pool.getCorePoolSize() + " workers");
+		long startTime = System.nanoTime();
+		for(Run run : order)
+			pool.execute(run);
+		pending.await();
+		pool.shutdown();
+
+		double minutes = (System.nanoTime() - startTime) / 60e9;
+		System.out.printf("Solved %d instances in %.1f sec (%.2f instances per minute)%n",
+							order.size(), minutes * 60, order.size() / minutes);
+	}
+
+	/**
+	 * One instance being solved. Every execution runs a time slice of generations
+	 * and queues the run again until the genetic algorithm is done.
+	 */
+	private class Run implements Runnable {
+
+		private final GeneticAlgorithm ga;
+		private final String result;	// name of the result file, without its extension
+		private boolean started;
+
+		Run(Instance instance, String result) {
+
+			this.ga = new GeneticAlgorithm(instance, popSize, iter_max, p_cross, p_mut);
+			this.result = result;
+			ga.setTimeBudget((long) (time_budget * 1000));
+			ga.setTargetPenalty(target_penalty);
+			if(stagnation_limit > 0) {
+				ga.setStagnationLimit(stagnation_limit);
+				ga.setDiversityFloor(0.05);
+			}
+		}
+
+		@Override
+		public void run() {
+
+			try {
+				long slice_end = System.nanoTime() + SLICE * 1000000L;
+				if(!started) {
+					ga.init();
+					started = true;
+				}
+				while(!ga.isDone() && System.nanoTime() < slice_end)
+					ga.step();
+
+				if(!ga.isDone()) {
+					pool.execute(this);	// give the workers to the other instances
+					return;
+				}
+				this.finish();
+			} catch(IOException | RuntimeException e) {
+				System.out.println("Instance " + result + " failed: " + e.getMessage());
+				pending.countDown();
+			}
+		}
+
+		// Write the result file of the instance
+		private void finish() throws IOException {
+
+			Individual best = ga.getBest();
+			String name = ga.getInstance().getName();
+			best.writeSchedule(output.resolve(result + ".result"),
+								"instance " + name,
+								"penalty " + best.getTotalPenalty(),
+								"generations " + ga.getGenerations(),
+								"time " + ga.getElapsedTime() + " ms");
+			System.out.println("Instance " + result + ": penalty " + best.getTotalPenalty()
+								+ " after " + ga.getGenerations() + " generations, " + ga.getElapsedTime() + " ms");
+			pending.countDown();
+		}
+	}
+}
@@ -0,0 +1,316 @@
+/***********************************************************************************************************
+
+	Benchmark solves a corpus of instances with fixed seeds and records the performance of every run in
+	a baseline file, so that a release can be compared with the baseline of the previous one.
+
+	Every instance of the corpus (a directory of instance files or a manifest, see BatchSolver) is solved
+	once for each seed by the genetic algorithm. The runs are made one after the other with serial
+	evaluation, so that they measure the code rather than the load of the machine, after a few warm-up
+	runs that are discarded. Every run records its final penalty and the lower bound of the instance,
+	the time it found its best schedule, the time it reached the target penalty (or the lower bound) and
+	its evaluations per second.
+
+	Given the baseline of a previous release (-b), the runs are compared instance by instance: an instance
+	regresses when its mean penalty grows, its evaluations per second fall, or it reaches its targets
+	later or less often, by more than the tolerance (10% by default). The regressions are listed and the
+	exit status is 1, so that the benchmark can fail a build.
+
+	Usage: java Benchmark <directory|manifest> [-seeds <n>] [-i <popSize> <iterMax> <pCross> <pMut>] [-t <seconds>]
+						  [-p <targetPenalty>] [-o <baseline.csv>] [-b <previous.csv>] [-tol <fraction>]
+
+	Date:	 2026
+***********************************************************************************************************/
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class Benchmark {
+
+	// generations of the warm-up runs
+	private static final int WARM_UP_GENERATIONS = 20;
+	// differences of time-to-target under this many milliseconds are timing noise
+	private static final long MIN_TIME = 50;
+	// evaluations per second are compared only over runs of this many milliseconds in total
+	private static final long MIN_ELAPSED = 1000;
+	private static final String HEADER = "instance,employees,days,seed,penalty,lowerBound,generations,evaluations,"
+										+ "elapsed,evaluationsPerSecond,timeToBest,timeToTarget";
+
+	/**
+	 * Result of one run, a line of the baseline file. Times are in milliseconds from the start of the run.
+	 */
+	public static class Run {
+
+		final String instance;
+		final int employees;
+		final int days;
+		final long seed;
+		final int penalty;
+		final int lower_bound;
+		final int generations;
+		final long evaluations;
+		final long elapsed;
+		final long time_to_best;
+		final long time_to_target;	// -1 if the target was not reached
+
+		Run(String instance, int employees, int days, long seed, int penalty, int lower_bound, int generations,
+				long evaluations, long elapsed, long time_to_best, long time_to_target) {
+			this.instance = instance;
+			this.employees = employees;
+			this.days = days;
+			this.seed = seed;
+			this.penalty = penalty;
+			this.lower_bound = lower_bound;
+			this.generations = generations;
+			this.evaluations = evaluations;
+			this.elapsed = elapsed;
+			this.time_to_best = time_to_best;
+			this.time_to_target = time_to_target;
+		}
+
+		// evaluations per second
+		double throughput() {
+			return evaluations * 1000.0 / Math.max(1, elapsed);
+		}
+
+		String toCsv() {
+			return instance + "," + employees + "," + days + "," + seed + "," + penalty + "," + lower_bound + ","
+					+ generations + "," + evaluations + "," + elapsed + "," + Math.round(this.throughput()) + ","
+					+ time_to_best + "," + (time_to_target >= 0 ? String.valueOf(time_to_target) : "");
+		}
+
+		static Run parse(String line) {
+			String[] f = line.split(",", -1);
+			if(f.length != 12)
+				throw new IllegalArgumentException("Invalid baseline line: " + line);
+			return new Run(f[0], Integer.parseInt(f[1]), Integer.parseInt(f[2]), Long.parseLong(f[3]),
+							Integer.parseInt(f[4]), Integer.parseInt(f[5]), Integer.parseInt(f[6]), Long.parseLong(f[7]),
+							Long.parseLong(f[8]), Long.parseLong(f[10]), f[11].isEmpty() ? -1 : Long.parseLong(f[11]));
+		}
+	}
+
+	// parameters of every run
+	private int popSize = 1000;
+	private int iter_max = 200;
+	private double p_cross = 0.85;
+	private double p_mut = 0.015;
+	private long time_budget = 0;		// wall-clock budget of every run in milliseconds, 0 for none
+	private int target_penalty = 0;
+	private int seeds = 3;
+	private double tolerance = 0.1;
+
+	public static void main(String[] args) throws IOException {
+
+		if(args.length < 1) {
+			System.out.println("Usage: java Benchmark <directory|manifest> [-seeds <n>] [-i <popSize> <iterMax> <pCross> <pMut>]"
+							+ " [-t <seconds>] [-p <targetPenalty>] [-o <baseline.csv>] [-b <previous.csv>] [-tol <fraction>]");
+			return;
+		}
+
+		Benchmark benchmark = new Benchmark();
+		Path output = Path.of("baseline.csv");
+		Path previous = null;
+		for(int a = 1; a < args.length; a++) {
+			switch(args[a]) {
+				case "-seeds": benchmark.seeds = Integer.parseInt(args[++a]); break;
+				case "-i":
+					benchmark.popSize = Integer.parseInt(args[++a]);
+					benchmark.iter_max = Integer.parseInt(args[++a]);
+					benchmark.p_cross = Double.parseDouble(args[++a]);
+					benchmark.p_mut = Double.parseDouble(args[++a]);
+					break;
+				case "-t": benchmark.time_budget = (long) (Double.parseDouble(args[++a]) * 1000); break;
+				case "-p": benchmark.target_penalty = Integer.parseInt(args[++a]); break;
+				case "-o": output = Path.of(args[++a]); break;
+				case "-b": previous = Path.of(args[++a]); break;
+				case "-tol": benchmark.tolerance = Double.parseDouble(args[++a]); break;
+				default: throw new IllegalArgumentException("Unknown option " + args[a]);
+			}
+		}
+
+		List<Instance> instances = BatchSolver.instances(Path.of(args[0]));
+		List<Run> runs = benchmark.run(instances);
+		write(runs, output);
+		System.out.println("Baseline written to " + output);
+
+		if(previous != null && benchmark.compare(read(previous), runs) > 0)
+			System.exit(1);
+	}
+
+	/**
+	 * Solves every instance once for every seed, after the warm-up runs.
+	 *
+	 * @param instances the corpus
+	 * @return the runs, by instance and seed
+	 */
+	public List<Run> run(List<Instance> instances) {
+
+		List<Run> runs = new ArrayList<>();
+		if(instances.isEmpty())
+			return runs;
+		for(int w = 0; w < 3; w++)
+			this.solve(instances.get(0), -1 - w, WARM_UP_GENERATIONS);
+
+		for(Instance instance : instances) {
+			for(long seed = 0; seed < seeds; seed++) {
+				Run run = this.solve(instance, seed, iter_max);
+				runs.add(run);
+				System.out.printf("%-24s seed %d: penalty %d (bound %d), %d generations, %.0f evaluations/s, best after %d ms%s%n",
+									run.instance, seed, run.penalty, run.lower_bound, run.generations, run.throughput(),
+									run.time_to_best, run.time_to_target >= 0 ? ", target after " + run.time_to_target + " ms" : "");
+			}
+		}
+		return runs;
+	}
+
+	// One run of the genetic algorithm
+	private Run solve(Instance instance, long seed, int iterations) {
+
+		GeneticAlgorithm ga = new GeneticAlgorithm(instance, popSize, iterations, p_cross, p_mut);
+		ga.setEvaluation(GeneticAlgorithm.Evaluation.SERIAL);
+		ga.setRandomSeed(seed);
+		ga.setTimeBudget(time_budget);
+		ga.setTargetPenalty(target_penalty);
+		// time of the last improvement of the best penalty
+		long[] time_to_best = new long[1];
+		int[] best_penalty = {Integer.MAX_VALUE};
+		ga.setListener((generation, pop, best) -> {
+			if(best.getTotalPenalty() < best_penalty[0]) {
+				best_penalty[0] = best.getTotalPenalty();
+				time_to_best[0] = ga.getElapsedTime();
+			}
+		});
+
+		Individual best = ga.run();
+		long elapsed = ga.getElapsedTime();
+		boolean reached = best.getTotalPenalty() <= target_penalty || ga.isOptimal();
+		LowerBound lower_bound = ga.getLowerBound();
+		return new Run(instance.getName(), instance.getEmployees(), instance.getDays(), seed, best.getTotalPenalty(),
+						lower_bound == null ? 0 : lower_bound.getBound(), ga.getGenerations(), ga.getEvaluations(),
+						elapsed, time_to_best[0], reached ? elapsed : -1);
+	}
+
+	/**
+	 * Compares the runs with the runs of a previous baseline, instance by instance, and prints the
+	 * comparison.
+	 *
+	 * @return the number of instances that regress
+	 */
+	public int compare(List<Run> previous, List<Run> current) {
+
+		Map<String, List<Run>> before = byInstance(previous);
+		Map<String, List<Run>> after = byInstance(current);
+		int regressions = 0;
+
+		System.out.printf("%n%-24s %21s %21s %13s %21s%n", "Instance", "Mean penalty", "Evaluations/s", "Targets", "Time-to-target (ms)");
+		for(Map.Entry<String, List<Run>> entry : after.entrySet()) {
+			List<Run> old_runs = before.get(entry.getKey());
+			List<Run> new_runs = entry.getValue();
+			if(old_runs == null) {
+				System.out.printf("%-24s not in the previous baseline%n", entry.getKey());
+				continue;
+			}
+
+			double old_penalty = meanPenalty(old_runs), new_penalty = meanPenalty(new_runs);
+			double old_rate = throughput(old_runs), new_rate = throughput(new_runs);
+			int old_reached = reached(old_runs), new_reached = reached(new_runs);
+
+			// time-to-target of the seeds that reached the target in both baselines
+			long old_time = 0, new_time = 0;
+			for(Run run : new_runs) {
+				for(Run old : old_runs) {
+					if(old.seed == run.seed && old.time_to_target >= 0 && run.time_to_target >= 0) {
+						old_time += old.time_to_target;
+						new_time += run.time_to_target;
+					}
+				}
+			}
+
+			List<String> worse = new ArrayList<>();
+			if(new_penalty > old_penalty * (1 + tolerance))
+				worse.add("penalty");
+			if(new_rate < old_rate * (1 - tolerance) && elapsed(old_runs) >= MIN_ELAPSED && elapsed(new_runs) >= MIN_ELAPSED)
+				worse.add("evaluations/s");
+			if(new_reached < old_reached)
+				worse.add("targets");
+			if(new_time > old_time * (1 + tolerance) + MIN_TIME)
+				worse.add("time-to-target");
+			if(!worse.isEmpty())
+				regressions++;
+
+			System.out.printf("%-24s %10.1f %10.1f %10.0f %10.0f %6d %6d %10d %10d  %s%n", entry.getKey(),
+								old_penalty, new_penalty, old_rate, new_rate, old_reached, new_reached, old_time, new_time,
+								worse.isEmpty() ? "ok" : "REGRESSION (" + String.join(", ", worse) + ")");
+		}
+		System.out.println(regressions == 0 ? "No regression" : regressions + " instances regress");
+		return regressions;
+	}
+
+	private static Map<String, List<Run>> byInstance(List<Run> runs) {
+		Map<String, List<Run>> map = new LinkedHashMap<>();
+		for(Run run : runs)
+			map.computeIfAbsent(run.instance, name -> new ArrayList<>()).add(run);
+		return map;
+	}
+
+	private static double meanPenalty(List<Run> runs) {
+		double sum = 0;
+		for(Run run : runs)
+			sum += run.penalty;
+		return sum / runs.size();
+	}
+
+	// evaluations per second over all the runs
+	private static double throughput(List<Run> runs) {
+		long evaluations = 0;
+		for(Run run : runs)
+			evaluations += run.evaluations;
+		return evaluations * 1000.0 / Math.max(1, elapsed(runs));
+	}
+
+	private static long elapsed(List<Run> runs) {
+		long elapsed = 0;
+		for(Run run : runs)
+			elapsed += run.elapsed;
+		return elapsed;
+	}
+
+	private static int reached(List<Run> runs) {
+		int reached = 0;
+		for(Run run : runs) {
+			if(run.time_to_target >= 0)
+				reached++;
+		}
+		return reached;
+	}
+
+	/**
+	 * Writes the runs as a CSV baseline, one line per run.
+	 */
+	public static void write(List<Run> runs, Path file) throws IOException {
+
+		try(BufferedWriter out = Files.newBufferedWriter(file)) {
+			out.write(HEADER + "\n");
+			for(Run run : runs)
+				out.write(run.toCsv() + "\n");
+		}
+	}
+
+	/**
+	 * Reads the runs of a CSV baseline written by write().
+	 */
+	public static List<Run> read(Path file) throws IOException {
+
+		List<Run> runs = new ArrayList<>();
+		for(String line : Files.readAllLines(file)) {
+			if(!line.isEmpty() && !line.equals(HEADER))
+				runs.add(Run.parse(line));
+		}
+		return runs;
+	}
+}
@@ -0,0 +1,530 @@
+/***********************************************************************************************************
+
+	ConstraintModel is a declarative set of soft constraints, compiled into a fused per-employee automaton.
+
+	The soft constraints of Fitness are written by hand, one scan of the chromosome each. A constraint
+	model instead describes every soft constraint as a rule with its own weight, read from a text file
+	with one rule per line:
+
+		# weight  rule
+		1000      hours max 70				more than 70 working hours in a 14-day period (the counter restarts
+											after a violation and at every period, see Fitness.HOURS_PERIOD)
+		1000      run W max 7				more than 7 consecutive days in a set of shifts
+		100       block N length 4 rest 2	4 consecutive night shifts not followed by 2 days off
+		800       pattern A M				a sequence of days, e.g. a morning shift after an afternoon shift
+		800       succession N A			same as pattern N A
+		1         weekends max 1			more than 1 consecutive worked weekend (Saturday and Sunday)
+
+	Shifts are written O (off), M (morning), A (afternoon), N (night), W (any working shift) or * (any),
+	and a set of shifts is written as several letters, e.g. MA. The default model (WHPP) reproduces
+	the soft constraints of Fitness, with their weights.
+
+	Every rule is a small automaton reading the shifts of an employee day by day. The rules are compiled
+	into the product of their automata, whose states are the reachable combinations of the states of the
+	rules: the penalty of an employee is then read from one lookup table per day, whatever the number of rules.
+	When the product of all the rules is too big to stay in the cache, the rules are fused into a few
+	automata, still evaluated in a single pass over the days of an employee.
+
+	Date:	 2026
+***********************************************************************************************************/
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class ConstraintModel {
+
+	// rules reproducing the soft constraints of Fitness
+	public static final String WHPP = String.join("\n",
+			"1000 hours max 70",
+			"1000 run W max 7",
+			"1000 run N max 4",
+			"1000 succession N M",
+			"800  succession A M",
+			"800  succession N A",
+			"100  block N length 4 rest 2",
+			"100  block W length 7",
+			"1    pattern W O W",
+			"1    pattern O W O",
+			"1    weekends max 1");
+
+	// symbols read by the automata: the shift of a day, whether it is a Saturday, a Sunday or another day,
+	// and whether it starts a period of the working hours (the day type plus PERIOD_START)
+	private static final int PERIOD_START = 3;
+	private static final int DAY_TYPES = 2 * PERIOD_START;
+	private static final int SYMBOLS = 4 * DAY_TYPES;
+	// states of a fused automaton, so that its table (8 bytes per state and symbol) stays in the cache
+	private static final int FUSE_LIMIT = 4096;
+
+	private final List<Rule> rules;
+	private final Automaton[] automata;
+
+	private ConstraintModel(List<Rule> rules) {
+
+		this.rules = rules;
+		this.automata = fuse(rules);
+	}
+
+	/**
+	 * Reads and compiles a constraint model from a rule file.
+	 *
+	 * @param file the rule file
+	 * @return the compiled model
+	 * @throws IOException if the file cannot be read
+	 */
+	public static ConstraintModel read(Path file) throws IOException {
+		return parse(Files.readString(file));
+	}
+
+	/**
+	 * Parses and compiles a constraint model from the text of a rule file.
+	 *
+	 * @param text the rules, one per line
+	 * @return the compiled model
+	 */
+	public static ConstraintModel parse(String text) {
+
+		List<Rule> rules = new ArrayList<>();
+		for(String line : text.split("\\R")) {
+			int comment = line.indexOf('#');
+			if(comment >= 0)
+				line = line.substring(0, comment);
+			String[] tokens = line.trim().split("\\s+");
+			if(tokens[0].isEmpty())
+				continue;
+			if(tokens.length < 2)
+				throw new IllegalArgumentException("Invalid rule: " + line.trim());
+
+			try {
+				int weight = Integer.parseInt(tokens[0]);
+				String[] args = Arrays.copyOfRange(tokens, 2, tokens.length);
+				switch(tokens[1].toLowerCase()) {
+					case "hours": rules.add(new Hours(weight, number(args, "max"))); break;
+					case "run": rules.add(new Run(weight, shifts(args[0]), number(args, "max"))); break;
+					case "block": rules.add(new Block(weight, shifts(args[0]), number(args, "length"),
+														contains(args, "rest") ? number(args, "rest") : 0)); break;
+					case "pattern":
+					case "succession": rules.add(new Pattern(weight, args)); break;
+					case "weekends": rules.add(new Weekends(weight, number(args, "max"))); break;
+					default: throw new IllegalArgumentException("unknown rule " + tokens[1]);
+				}
+			} catch(RuntimeException e) {
+				throw new IllegalArgumentException("Invalid rule: " + line.trim() + " (" + e.getMessage() + ")");
+			}
+		}
+		return new ConstraintModel(rules);
+	}
+
+	/**
+	 * Calculates the total penalty of a range of employees, in one pass over the days of every employee.
+	 *
+	 * @param chromosome the schedule of employees, by day (chromosome[j][i] for employee i on day j)
+	 * @param from the first employee to evaluate
+	 * @param to the employee after the last one to evaluate
+	 * @param day_type the type of every day, see dayTypes()
+	 * @param v the violations of the employees and days to update, or null
+	 * @return the total penalty of the employees
+	 */
+	public int penalty(int[][] chromosome, int from, int to, int[] day_type, Fitness.Violations v) {
+
+		int total_penalty = 0;
+		int[] state = new int[automata.length];
+		for(int i = from; i < to; i++) {
+			int penalty = 0;
+			for(int a = 0; a < automata.length; a++)
+				state[a] = 0;
+			for(int j = 0; j < chromosome.length; j++) {
+				int symbol = chromosome[j][i] * DAY_TYPES + day_type[j];
+				int day_penalty = 0;
+				for(int a = 0; a < automata.length; a++) {
+					int[] table = automata[a].table;
+					int k = (state[a] * SYMBOLS + symbol) << 1;
+					state[a] = table[k];
+					day_penalty += table[k+1];
+				}
+				if(v != null && day_penalty > 0)
+					v.day[j] += day_penalty;
+				penalty += day_penalty;
+			}
+			int end_penalty = 0;	// rules left unresolved at the end of the horizon
+			for(int a = 0; a < automata.length; a++)
+				end_penalty += automata[a].end[state[a]];
+			if(v != null) {
+				v.day[chromosome.length-1] += end_penalty;
+				v.employee[i] += penalty + end_penalty;
+			}
+			total_penalty += penalty + end_penalty;
+		}
+		return total_penalty;
+	}
+
+	/**
+	 * Returns the type of every day of an instance, read by the automata with the shifts.
+	 *
+	 * @param instance the problem instance
+	 * @return 1 for Saturdays, 2 for Sundays, 0 for the other days, plus PERIOD_START on the first day of
+	 *         every period of the working hours but the first one
+	 */
+	public static int[] dayTypes(Instance instance) {
+
+		int[] day_type = new int[instance.getDays()];
+		for(int j = 0; j < day_type.length; j++) {
+			int weekday = instance.getWeekday(j);
+			day_type[j] = (weekday == 5) ? 1 : (weekday == 6) ? 2 : 0;
+			if(j > 0 && j % Fitness.HOURS_PERIOD == 0)
+				day_type[j] += PERIOD_START;
+		}
+		return day_type;
+	}
+
+	public int getRules() {
+		return rules.size();
+	}
+
+	// Number of states of every fused automaton
+	public int[] getStates() {
+
+		int[] states = new int[automata.length];
+		for(int a = 0; a < automata.length; a++)
+			states[a] = automata[a].end.length;
+		return states;
+	}
+
+	/*********************************************
+	* Compilation
+	*********************************************/
+
+	/* Fused automaton: for every state and symbol, the next state and the penalty of the transition
+	   (interleaved, so that both are read from the same cache line), and the penalty of every final state */
+	private static class Automaton {
+		int[] table;
+		int[] end;
+	}
+
+	// Fuse the rules in file order into as few automata as possible under the state limit
+	private static Automaton[] fuse(List<Rule> rules) {
+
+		List<Automaton> automata = new ArrayList<>();
+		int first = 0;
+		while(first < rules.size()) {
+			Automaton fused = product(rules.subList(first, first + 1), Integer.MAX_VALUE);
+			int last = first + 1;
+			while(last < rules.size()) {
+				Automaton larger = product(rules.subList(first, last + 1), FUSE_LIMIT);
+				if(larger == null)
+					break;
+				fused = larger;
+				last++;
+			}
+			automata.add(fused);
+			first = last;
+		}
+		return automata.toArray(new Automaton[0]);
+	}
+
+	/**
+	 * Builds the product automaton of some rules by a breadth-first search of the reachable
+	 * combinations of their states, from the combination of their initial states.
+	 *
+	 * @return the automaton, or null if it has more states than the limit
+	 */
+	private static Automaton product(List<Rule> rules, int limit) {
+
+		Map<List<Integer>, Integer> ids = new HashMap<>();
+		List<int[]> states = new ArrayList<>();
+		int[] initial = new int[rules.size()];
+		ids.put(key(initial), 0);
+		states.add(initial);
+
+		List<int[]> transitions = new ArrayList<>();	// {next state, penalty} of every state and symbol
+		for(int id = 0; id < states.size(); id++) {
+			int[] state = states.get(id);
+			for(int symbol = 0; symbol < SYMBOLS; symbol++) {
+				int shift = symbol / DAY_TYPES;
+				int day_type = symbol % DAY_TYPES;
+				int[] next = new int[rules.size()];
+				int penalty = 0;
+				for(int r = 0; r < rules.size(); r++) {
+					Rule rule = rules.get(r);
+					penalty += rule.weight * rule.violations(state[r], shift, day_type);
+					next[r] = rule.next(state[r], shift, day_type);
+				}
+				Integer next_id = ids.get(key(next));
+				if(next_id == null) {
+					if(states.size() == limit)
+						return null;
+					next_id = states.size();
+					ids.put(key(next), next_id);
+					states.add(next);
+				}
+				transitions.add(new int[] {next_id, penalty});
+			}
+		}
+
+		Automaton automaton = new Automaton();
+		automaton.table = new int[2 * transitions.size()];
+		for(int k = 0; k < transitions.size(); k++) {
+			automaton.table[2*k] = transitions.get(k)[0];
+			automaton.table[2*k+1] = transitions.get(k)[1];
+		}
+		automaton.end = new int[states.size()];
+		for(int id = 0; id < states.size(); id++) {
+			for(int r = 0; r < rules.size(); r++)
+				automaton.end[id] += rules.get(r).weight * rules.get(r).end(states.get(id)[r]);
+		}
+		return automaton;
+	}
+
+	private static List<Integer> key(int[] state) {
+
+		List<Integer> key = new ArrayList<>(state.length);
+		for(int s : state)
+			key.add(s);
+		return key;
+	}
+
+	/*********************************************
+	* Rules
+	*********************************************/
+
+	/* A soft constraint read day by day: the violations found on a day and the next state depend on
+	   the state and on the shift and type of the day; the state 0 is the state before the first day */
+	private abstract static class Rule {
+
+		final int weight;
+
+		Rule(int weight) {
+			this.weight = weight;
+		}
+
+		abstract int next(int state, int shift, int day_type);
+
+		abstract int violations(int state, int shift, int day_type);
+
+		// violations left at the end of the horizon
+		int end(int state) {
+			return 0;
+		}
+	}
+
+	// Working hours of a period over the limit; the counter restarts after every violation and at every period (soft constraint 1)
+	private static class Hours extends Rule {
+
+		final int max;
+
+		Hours(int weight, int max) {
+			super(weight);
+			this.max = max;
+		}
+
+		private static int hours(int shift) {
+			return (shift == 1) ? Individual.MORNING_SHIFT : (shift == 2) ? Individual.AFTERNOON_SHIFT
+					: (shift == 3) ? Individual.NIGHT_SHIFT : 0;
+		}
+
+		int next(int state, int shift, int day_type) {
+			int hours = ((day_type >= PERIOD_START) ? 0 : state) + hours(shift);
+			return (hours > max) ? 0 : hours;
+		}
+
+		int violations(int state, int shift, int day_type) {
+			return (((day_type >= PERIOD_START) ? 0 : state) + hours(shift) > max) ? 1 : 0;
+		}
+	}
+
+	// More than max consecutive days in a set of shifts; the violating day starts a new run (soft constraints 2 and 3)
+	private static class Run extends Rule {
+
+		final boolean[] shifts;
+		final int max;
+
+		Run(int weight, boolean[] shifts, int max) {
+			super(weight);
+			this.shifts = shifts;
+			this.max = max;
+		}
+
+		int next(int state, int shift, int day_type) {
+			return !shifts[shift] ? 0 : (state == max) ? 1 : state + 1;
+		}
+
+		int violations(int state, int shift, int day_type) {
+			return (shifts[shift] && state == max) ? 1 : 0;
+		}
+	}
+
+	/* A block of length consecutive days in a set of shifts, unless some of the next rest days are off
+	   (soft constraints 7 and 8). As in Fitness, the block is a violation only if all the next rest
+	   days are worked, or if the horizon ends within them, and the next block starts after it.
+	   The state holds the length of the current block and the days checked after the last block,
+	   with whether they were all worked. */
+	private static class Block extends Rule {
+
+		final boolean[] shifts;
+		final int length;
+		final int rest;
+
+		Block(int weight, boolean[] shifts, int length, int rest) {
+			super(weight);
+			if(length < 1 || rest < 0 || rest >= length)
+				throw new IllegalArgumentException("rest must be less than the length");
+			this.shifts = shifts;
+			this.length = length;
+			this.rest = rest;
+		}
+
+		// state = count + length * (checked + (rest+1) * worked), checked = 0 when no block is pending
+		private int state(int count, int checked, int worked) {
+			return count + length * (checked + (rest + 1) * worked);
+		}
+
+		int next(int state, int shift, int day_type) {
+
+			int count = state % length;
+			int checked = (state / length) % (rest + 1);
+			int worked = state / length / (rest + 1);
+			if(checked > 0) {	// checking the days after a block
+				checked = (checked == rest) ? 0 : checked + 1;
+				worked = (checked > 0 && worked == 1 && shift != 0) ? 1 : 0;
+			}
+			count = shifts[shift] ? count + 1 : 0;
+			if(count == length) {	// block found
+				count = 0;
+				if(rest > 0) {
+					checked = 1;
+					worked = 1;
+				}
+			}
+			return this.state(count, checked, worked);
+		}
+
+		int violations(int state, int shift, int day_type) {
+
+			int count = state % length;
+			int checked = (state / length) % (rest + 1);
+			int worked = state / length / (rest + 1);
+			int violations = 0;
+			if(checked == rest && rest > 0 && worked == 1 && shift != 0)	// all the rest days worked
+				violations++;
+			if(rest == 0 && shifts[shift] && count + 1 == length)
+				violations++;
+			return violations;
+		}
+
+		int end(int state) {
+			return ((state / length) % (rest + 1) > 0) ? 1 : 0;	// the horizon ends within the rest days
+		}
+	}
+
+	/* A sequence of days, e.g. W O W (soft constraints 4, 5, 6, 9 and 10). The state holds the shifts of
+	   the last days in base 5, the most recent day first, each as shift+1, 0 for no day. */
+	private static class Pattern extends Rule {
+
+		final boolean[][] days;
+		final int size;		// states of the days before the last one but one
+
+		Pattern(int weight, String[] tokens) {
+			super(weight);
+			if(tokens.length < 1)
+				throw new IllegalArgumentException("empty pattern");
+			this.days = new boolean[tokens.length][];
+			for(int d = 0; d < tokens.length; d++)
+				days[d] = shifts(tokens[d]);
+			this.size = (int) Math.pow(5, Math.max(0, tokens.length - 2));
+		}
+
+		int next(int state, int shift, int day_type) {
+			return (days.length == 1) ? 0 : (shift + 1) + 5 * (state % size);
+		}
+
+		int violations(int state, int shift, int day_type) {
+
+			if(!days[days.length-1][shift])
+				return 0;
+			for(int d = days.length - 2; d >= 0; d--) {
+				int previous = state % 5 - 1;
+				if(previous < 0 || !days[d][previous])
+					return 0;
+				state /= 5;
+			}
+			return 1;
+		}
+	}
+
+	/* More than max consecutive worked weekends, a weekend being worked if both its Saturday and its
+	   Sunday are (soft constraint 11). The state holds whether the last Saturday was worked and the
+	   number of consecutive worked weekends. */
+	private static class Weekends extends Rule {
+
+		final int max;
+
+		Weekends(int weight, int max) {
+			super(weight);
+			this.max = max;
+		}
+
+		int next(int state, int shift, int day_type) {
+
+			int count = state >> 1;
+			day_type %= PERIOD_START;
+			if(day_type == 1)	// Saturday
+				return (count << 1) | (shift != 0 ? 1 : 0);
+			if(day_type == 2) {	// Sunday
+				if((state & 1) == 1 && shift != 0)
+					return Math.min(count + 1, max) << 1;
+				return 0;
+			}
+			return count << 1;
+		}
+
+		int violations(int state, int shift, int day_type) {
+			return (day_type % PERIOD_START == 2 && (state & 1) == 1 && shift != 0 && (state >> 1) + 1 > max) ? 1 : 0;
+		}
+	}
+
+	/*********************************************
+	* Parsing helpers
+	*********************************************/
+
+	// Set of shifts written with the letters O, M, A, N, W and *
+	private static boolean[] shifts(String letters) {
+
+		boolean[] set = new boolean[4];
+		for(char c : letters.toUpperCase().toCharArray()) {
+			switch(c) {
+				case 'O': set[0] = true; break;
+				case 'M': set[1] = true; break;
+				case 'A': set[2] = true; break;
+				case 'N': set[3] = true; break;
+				case 'W': set[1] = set[2] = set[3] = true; break;
+				case '*': Arrays.fill(set, true); break;
+				default: throw new IllegalArgumentException("unknown shift " + c);
+			}
+		}
+		return set;
+	}
+
+	// The number following a keyword
+	private static int number(String[] args, String keyword) {
+
+		for(int a = 0; a < args.length - 1; a++) {
+			if(args[a].equalsIgnoreCase(keyword))
+				return Integer.parseInt(args[a+1]);
+		}
+		throw new IllegalArgumentException("missing " + keyword);
+	}
+
+	private static boolean contains(String[] args, String keyword) {
+
+		for(String arg : args) {
+			if(arg.equalsIgnoreCase(keyword))
+				return true;
+		}
+		return false;
+	}
+}
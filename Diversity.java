@@ -0,0 +1,176 @@
+/***********************************************************************************************************
+
+	Diversity keeps the diversity of the genes of a population up to date as individuals enter and leave it.
+
+	Every schedule entering the population is packed once, two bits per gene (the shifts 0-3), 32 genes
+	in a long. The number of individuals with every shift for every (day, employee) is updated from the
+	packed genes on every entry and exit, together with the sum of c*ln(c) over these counts, so that the
+	gene-frequency entropy of the population is available at any time without going through the
+	population: the mean entropy of an (employee, day) is ln(N) - sum/(N*genes).
+
+	The Hamming distance between two schedules (the number of genes that differ) is computed on the
+	packed genes: the XOR of two words has a non-zero pair of bits for every differing gene, and folding
+	every pair onto its low bit leaves one bit per differing gene to count with a popcount, 32 genes at a
+	time. The mean pairwise distance of the population is estimated from a sample of pairs.
+
+	Both measures are normalised to [0,1]: the entropy by ln(4), the distance by the number of genes.
+
+	Date:	 2026
+***********************************************************************************************************/
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Random;
+
+public class Diversity {
+
+	// the low bit of every 2-bit gene
+	private static final long LOW_BITS = 0x5555555555555555L;
+	// pairs sampled to estimate the mean pairwise Hamming distance
+	private static final int PAIRS = 256;
+
+	private final int genes;
+
+	private final int[] counts;		// individuals with every shift (4 per gene)
+	private double sum_clogc;		// sum of c*ln(c) over the counts
+	private double[] clogc;			// c*ln(c) for every count c
+
+	// members of the population, their packed genes, and the position of every member in the lists
+	private final List<Individual> members;
+	private final List<long[]> packed;
+	private final IdentityHashMap<Individual, Integer> position;
+	private final Random sampler;	// picks the pairs, apart from the random number generator of the run
+
+	public Diversity(Instance instance) {
+
+		this.genes = instance.getEmployees() * instance.getDays();
+		this.counts = new int[4 * genes];
+		this.growTable(16);
+		this.members = new ArrayList<>();
+		this.packed = new ArrayList<>();
+		this.position = new IdentityHashMap<>();
+		this.sampler = new Random(0);
+	}
+
+	/**
+	 * Adds an individual entering the population. Its genes are packed now, so later changes of its
+	 * genes do not change the counts.
+	 */
+	public void add(Individual id) {
+
+		long[] p = pack(id.getGenes());
+		if(clogc.length <= members.size() + 1)
+			this.growTable(2 * (members.size() + 1));
+		this.count(p, 1);
+		position.put(id, members.size());
+		members.add(id);
+		packed.add(p);
+	}
+
+	/**
+	 * Removes an individual leaving the population, with the genes it had when it was added.
+	 */
+	public void remove(Individual id) {
+
+		Integer k = position.remove(id);
+		if(k == null)
+			throw new IllegalArgumentException("The individual is not in the population");
+		this.count(packed.get(k), -1);
+
+		// move the last member into the hole
+		int last = members.size() - 1;
+		if(k != last) {
+			Individual moved = members.get(last);
+			members.set(k, moved);
+			packed.set(k, packed.get(last));
+			position.put(moved, k);
+		}
+		members.remove(last);
+		packed.remove(last);
+	}
+
+	// Update the counts of the genes of a packed schedule by +1 or -1
+	private void count(long[] p, int step) {
+
+		for(int g = 0; g < genes; g++) {
+			int shift = (int) (p[g >>> 5] >>> ((g & 31) << 1)) & 3;
+			int k = 4 * g + shift;
+			int c = counts[k];
+			sum_clogc += clogc[c + step] - clogc[c];
+			counts[k] = c + step;
+		}
+	}
+
+	private void growTable(int size) {
+
+		clogc = new double[size];
+		for(int c = 2; c < size; c++)
+			clogc[c] = c * Math.log(c);
+	}
+
+	/**
+	 * Mean gene-frequency entropy of the (employee, day) genes of the population, normalised by ln(4):
+	 * 0 when every individual has the same schedule, 1 when every shift is equally frequent everywhere.
+	 */
+	public double entropy() {
+
+		int n = members.size();
+		if(n < 2)
+			return 0;
+		double entropy = Math.log(n) - sum_clogc / ((double) n * genes);
+		return Math.max(0, entropy / Math.log(4));
+	}
+
+	/**
+	 * Mean Hamming distance between two members of the population, estimated from random pairs and
+	 * normalised by the number of genes.
+	 */
+	public double hamming() {
+
+		int n = members.size();
+		if(n < 2)
+			return 0;
+		long sum = 0;
+		for(int s = 0; s < PAIRS; s++) {
+			int k1 = sampler.nextInt(n);
+			int k2 = sampler.nextInt(n - 1);
+			if(k2 >= k1)
+				k2++;
+			sum += distance(packed.get(k1), packed.get(k2));
+		}
+		return (double) sum / PAIRS / genes;
+	}
+
+	/**
+	 * Number of genes that differ between two packed schedules.
+	 */
+	public static int distance(long[] p1, long[] p2) {
+
+		int d = 0;
+		for(int w = 0; w < p1.length; w++) {
+			long x = p1[w] ^ p2[w];
+			d += Long.bitCount((x | (x >>> 1)) & LOW_BITS);
+		}
+		return d;
+	}
+
+	/**
+	 * Packs genes two bits per gene, the genes of a row after the other, 32 in a long.
+	 */
+	public static long[] pack(int[][] chromosome) {
+
+		long[] p = new long[(chromosome.length * chromosome[0].length + 31) / 32];
+		int g = 0;
+		for(int i = 0; i < chromosome.length; i++) {
+			for(int j = 0; j < chromosome[i].length; j++, g++)
+				p[g >>> 5] |= (long) chromosome[i][j] << ((g & 31) << 1);
+		}
+		return p;
+	}
+
+	// members of the population
+	public int size() {
+		return members.size();
+	}
+}
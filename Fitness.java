@@ -13,13 +13,14 @@
 	Code updated by: D. Komninos, 2025
 ***********************************************************************************************************/
 
+import java.util.Arrays;
+import java.util.concurrent.RecursiveTask;
+
 public class Fitness {
 	
-	/* Hard constraints for the WHPP problem (number of shifts per day)
-	   needed here again, but without day-off shifts that we are not interested in */
-	private int[][] hard_constraints= { {10, 10, 5, 5, 5, 5, 5} , 
-										{10, 10, 10, 5, 10, 5, 5} , 
-										{5, 5, 5, 5, 5, 5, 5} };
+	/* Problem instance with the hard constraints (number of shifts per day)
+	   and the weekdays of the planning horizon */
+	private Instance instance;
 
 	/* Although some weight here are similar, a different method for each soft constraint
 	   is implemented in case someone wants to change the weights */
@@ -27,8 +28,38 @@ public class Fitness {
 	
 	int[][] heuristic;	// hold heuristic for each chromosome and then set to individual
 
+	// employees evaluated by one task of the parallel evaluation
+	private static final int ROW_GRAIN = 256;
+
+	// number of objectives (groups of soft constraints) of the multi-objective mode
+	public static final int OBJECTIVES = 3;
+
+	// days of a period of constraint 1 (at most 70 working hours), counted from the first day of the horizon
+	public static final int HOURS_PERIOD = 14;
+
+	// record the violations of every employee and day in the evaluated individuals
+	private boolean profiling;
+
+	/* Schedule to stay close to when rescheduling, null if none,
+	   and the penalty for every shift that differs from it */
+	private int[][] reference;
+	private int deviation_weight;
+
+	/* State of the employees at the end of the days before the chromosome, when the chromosome
+	   is a window of a longer horizon, null if the chromosome starts the horizon */
+	private History history;
+
+	/* Soft constraints compiled from a rule file, used instead of the methods below, null for none,
+	   and the type of every day read by its automata */
+	private ConstraintModel model;
+	private int[] day_type;
+
 	public Fitness() {
+		this(Instance.WHPP);
+	}
 
+	public Fitness(Instance instance) {
+		this.instance = instance;
 	}
 	
 	/**
@@ -39,31 +70,26 @@ public class Fitness {
 	 */
 	public boolean isValid(Individual id) {
 		
-		int[][] feasible = new int[3][14]; // 3 shifts, 14 days
-		int[][] genes = id.getChromosome();
+		int[][] genes = id.getGenes();
+		int[][] feasible = new int[3][instance.getDays()]; // 3 shifts, days
 		boolean valid = true;
 		
-		for (int i = 0; i < genes.length; i++) {
-		    for (int j = 0; j < genes[i].length; j++) {
-		    		if(genes[i][j] == 1) // morning shift
+		for (int j = 0; j < genes.length; j++) {
+		    for (int i = 0; i < genes[j].length; i++) {
+		    		if(genes[j][i] == 1) // morning shift
 		    			feasible[0][j]++;
-		    		else if (genes[i][j] == 2) // afternoon shift
+		    		else if (genes[j][i] == 2) // afternoon shift
 		    			feasible[1][j]++;
-		    		else if (genes[i][j] == 3) // night shift
+		    		else if (genes[j][i] == 3) // night shift
 		    			feasible[2][j]++;	    	
 		    }           
 		}
 		
 		for (int i = 0; i < feasible.length; i++) {
 			for (int j = 0; j < feasible[i].length; j++) {
-				if (j < 7) {
-					if(feasible[i][j] > hard_constraints[i][j]) {
-						valid = false;
-						return valid;
-					}
-				} else if(feasible[i][j] > hard_constraints[i][j-7]) {
-						valid = false;
-						return valid;
+				if(feasible[i][j] > instance.getDemand(i+1, j)) {
+					valid = false;
+					return valid;
 				}
 			}
 		}
@@ -77,46 +103,239 @@ public class Fitness {
 	 * @param id the individual whose fitness is to be calculated
 	 */
 	public void calc_Fitness(Individual id) {
-		int[][] chromosome = id.getChromosome();
+		int[][] chromosome = id.getGenes();
+		int employees = chromosome[0].length;
+		Violations v = profiling ? new Violations(employees, instance.getDays()) : null;
+		
+		// set fitness score (total penalty) for individual
+		id.setTotalPenalty(this.calc_Penalty(chromosome, 0, employees, v));
+		id.setViolations(v);
+	}
+
+	/**
+	 * Calculates the fitness of an individual like calc_Fitness(), but splits the employees of
+	 * the chromosome across fork-join tasks. Every task sums the penalties of its own employees and the
+	 * partial sums are added as the tasks join, so the tasks share no counter.
+	 * Only worth it for rosters with thousands of employees.
+	 *
+	 * @param id the individual whose fitness is to be calculated
+	 */
+	public void calc_Fitness_parallel(Individual id) {
+		int[][] chromosome = id.getGenes();
+		int employees = chromosome[0].length;
+		Violations v = profiling ? new Violations(employees, instance.getDays()) : null;
+		
+		// runs in the pool of the calling fork-join worker, or in the common pool
+		id.setTotalPenalty(new RowTask(chromosome, 0, employees, v).invoke());
+		id.setViolations(v);
+	}
+
+	/**
+	 * Calculates the penalty of every group of soft constraints separately, as the objectives of the
+	 * multi-objective mode (see Nsga2): working time and rest (constraints 1, 2, 3, 7 and 8), successions
+	 * of shifts (4, 5 and 6) and preferences (9, 10 and 11). The total penalty is set to their sum,
+	 * the penalty calculated by calc_Fitness().
+	 *
+	 * @param id the individual whose objectives are to be calculated
+	 */
+	public void calc_Objectives(Individual id) {
+		if(model != null)
+			throw new IllegalStateException("The objectives are groups of the WHPP soft constraints");
+
+		int[][] chromosome = id.getGenes();
+		int n = chromosome[0].length;
+		int[] objectives = new int[OBJECTIVES];
+		objectives[0] = this.soft_const_1(chromosome, 0, n, null) + this.soft_const_2(chromosome, 0, n, null)
+						+ this.soft_const_3(chromosome, 0, n, null) + this.soft_const_7(chromosome, 0, n, null)
+						+ this.soft_const_8(chromosome, 0, n, null);
+		objectives[1] = this.soft_const_4(chromosome, 0, n, null) + this.soft_const_5(chromosome, 0, n, null)
+						+ this.soft_const_6(chromosome, 0, n, null);
+		objectives[2] = this.soft_const_9(chromosome, 0, n, null) + this.soft_const_10(chromosome, 0, n, null)
+						+ this.soft_const_11(chromosome, 0, n, null);
+		if(reference != null)	// staying close to the reference schedule is a preference too
+			objectives[2] += this.deviation(chromosome, 0, n);
+
+		id.setObjectives(objectives);
+		id.setTotalPenalty(objectives[0] + objectives[1] + objectives[2]);
+	}
+
+	/**
+	 * Names of the penalties of calc_Breakdown(): every soft constraint, or the rules of a rule file
+	 * together, then the deviation from the reference schedule.
+	 */
+	public String[] getBreakdown() {
+		if(model != null)
+			return new String[] {"rules", "deviation"};
+		String[] names = new String[soft_constraints_weights.length + 1];
+		for(int c = 0; c < soft_constraints_weights.length; c++)
+			names[c] = "c" + (c + 1);
+		names[names.length - 1] = "deviation";
+		return names;
+	}
+
+	/**
+	 * Calculates the penalty of one employee, split as named by getBreakdown(). Only the employee is
+	 * evaluated, so the breakdown of a whole roster is calculated one employee after the other.
+	 *
+	 * @param chromosome the schedule of employees, by day
+	 * @param i the employee
+	 * @param penalties the penalties of the employee, filled in
+	 * @return the total penalty of the employee
+	 */
+	public int calc_Breakdown(int[][] chromosome, int i, int[] penalties) {
+
+		int n = 0;
+		if(model != null)
+			penalties[n++] = model.penalty(chromosome, i, i + 1, day_type, null);
+		else {
+			penalties[n++] = this.soft_const_1(chromosome, i, i + 1, null);
+			penalties[n++] = this.soft_const_2(chromosome, i, i + 1, null);
+			penalties[n++] = this.soft_const_3(chromosome, i, i + 1, null);
+			penalties[n++] = this.soft_const_4(chromosome, i, i + 1, null);
+			penalties[n++] = this.soft_const_5(chromosome, i, i + 1, null);
+			penalties[n++] = this.soft_const_6(chromosome, i, i + 1, null);
+			penalties[n++] = this.soft_const_7(chromosome, i, i + 1, null);
+			penalties[n++] = this.soft_const_8(chromosome, i, i + 1, null);
+			penalties[n++] = this.soft_const_9(chromosome, i, i + 1, null);
+			penalties[n++] = this.soft_const_10(chromosome, i, i + 1, null);
+			penalties[n++] = this.soft_const_11(chromosome, i, i + 1, null);
+		}
+		penalties[n++] = (reference == null) ? 0 : this.deviation(chromosome, i, i + 1);
+
+		int total = 0;
+		for(int k = 0; k < n; k++)
+			total += penalties[k];
+		return total;
+	}
+
+	/**
+	 * Calculates the total penalty of the violated soft constraints for a range of employees.
+	 * Every soft constraint is evaluated on each employee independently, so the penalties of disjoint
+	 * ranges of employees add up to the penalty of the whole chromosome.
+	 *
+	 * @param chromosome the schedule of employees, by day (chromosome[j][i] for employee i on day j)
+	 * @param from the first employee to evaluate
+	 * @param to the employee after the last one to evaluate
+	 * @param v the violations of the employees and days to update, or null
+	 * @return the total penalty of the employees
+	 */
+	public int calc_Penalty(int[][] chromosome, int from, int to, Violations v) {
 		int total_penalty = 0;  // total penalty of violated constraints
 		int fit = 0;       // penalty for each violated constraint
 
+		if(model != null) {	// every soft constraint in one pass
+			total_penalty = model.penalty(chromosome, from, to, day_type, v);
+			if(reference != null)
+				total_penalty += this.deviation(chromosome, from, to);
+			return total_penalty;
+		}
+
 		// calculate penalties for each soft constraint
-		fit = this.soft_const_1(chromosome);
+		fit = this.soft_const_1(chromosome, from, to, v);
 		total_penalty += fit;
 
-		fit = this.soft_const_2(chromosome);
+		fit = this.soft_const_2(chromosome, from, to, v);
 		total_penalty += fit;
 
-		fit = this.soft_const_3(chromosome);
+		fit = this.soft_const_3(chromosome, from, to, v);
 		total_penalty += fit;
 		
-		fit = this.soft_const_4(chromosome);
+		fit = this.soft_const_4(chromosome, from, to, v);
 		total_penalty += fit;
 
-		fit = this.soft_const_5(chromosome);
+		fit = this.soft_const_5(chromosome, from, to, v);
 		total_penalty += fit;
 
-		fit = this.soft_const_6(chromosome);
+		fit = this.soft_const_6(chromosome, from, to, v);
 		total_penalty += fit;
 
-		fit = this.soft_const_7(chromosome);
+		fit = this.soft_const_7(chromosome, from, to, v);
 		total_penalty += fit;
 
-		fit = this.soft_const_8(chromosome);
+		fit = this.soft_const_8(chromosome, from, to, v);
 		total_penalty += fit;
 
-		fit = this.soft_const_9(chromosome);
+		fit = this.soft_const_9(chromosome, from, to, v);
 		total_penalty += fit;
 
-		fit = this.soft_const_10(chromosome);
+		fit = this.soft_const_10(chromosome, from, to, v);
 		total_penalty += fit;
 
-		fit = this.soft_const_11(chromosome);
+		fit = this.soft_const_11(chromosome, from, to, v);
 		total_penalty += fit;
+
+		if(reference != null) {
+			fit = this.deviation(chromosome, from, to);
+			total_penalty += fit;
+		}
 		
-		// set fitness score (total penalty) for individual
-		id.setTotalPenalty(total_penalty);
+		return total_penalty;
+	}
+
+	/* Fork-join task evaluating a range of employees, split in halves down to ROW_GRAIN employees.
+	   Tasks write the violations of their own employees only, but every task counts the
+	   violations of the days in its own array, added to the violations of its parent task. */
+	private class RowTask extends RecursiveTask<Integer> {
+
+		private static final long serialVersionUID = 1L;
+
+		private final int[][] chromosome;
+		private final int from;
+		private final int to;
+		private final Violations v;
+
+		RowTask(int[][] chromosome, int from, int to, Violations v) {
+			this.chromosome = chromosome;
+			this.from = from;
+			this.to = to;
+			this.v = v;
+		}
+
+		@Override
+		protected Integer compute() {
+
+			if(to - from <= ROW_GRAIN)
+				return calc_Penalty(chromosome, from, to, v);
+
+			int mid = (from + to) >>> 1;
+			Violations left_v = (v == null) ? null : new Violations(v.employee, new int[v.day.length]);
+			RowTask left = new RowTask(chromosome, from, mid, left_v);
+			left.fork();
+			int right = new RowTask(chromosome, mid, to, v).compute();
+			int penalty = left.join() + right;
+			if(v != null) {
+				for(int j = 0; j < v.day.length; j++)
+					v.day[j] += left_v.day[j];
+			}
+			return penalty;
+		}
+	}
+
+	/**
+	 * Penalties of the violated soft constraints of a chromosome, per employee and per day.
+	 * A violation is counted on the day it is detected, e.g. the day after a night shift
+	 * for a morning shift after a night shift.
+	 */
+	public static class Violations {
+
+		public final int[] employee;	// penalty of every employee
+		public final int[] day;			// penalty of every day (column)
+
+		public Violations(int employees, int days) {
+			this(new int[employees], new int[days]);
+		}
+
+		Violations(int[] employee, int[] day) {
+			this.employee = employee;
+			this.day = day;
+		}
+	}
+
+	// Count one violation of soft constraint c on a day, returns 1 for the violation counter
+	private int mark(Violations v, int day, int c) {
+		if (v != null)
+			v.day[day] += this.soft_constraints_weights[c];
+		return 1;
 	}
 
 	/** Each method below checks for the respective soft constraint.
@@ -126,39 +345,47 @@ public class Fitness {
 	/**
 	 * Evaluates the soft constraint for the given chromosome.
 	 * The soft constraint ensures that the total working hours for each employee
-	 * do not exceed 70 hours in a 14-day period. If the constraint is violated,
-	 * a penalty is applied.
+	 * do not exceed 70 hours in a 14-day period. The hours are counted from the start of every period
+	 * of HOURS_PERIOD days of the horizon, and again from zero after a violation.
 	 *
 	 * @param chromosome a 2D array representing the schedule of employees.
-	 *                   Each row corresponds to an employee, and each column
-	 *                   corresponds to a day. The value at each position indicates
+	 *                   Each row (chromosome[j]) corresponds to a day, and each column
+	 *                   corresponds to an employee. The value at each position indicates
 	 *                   the type of shift (1 for morning, 2 for afternoon, 3 for night).
+	 * @param from the first employee to evaluate
+	 * @param to the employee after the last one to evaluate
+	 * @param v the violations of the employees and days to update, or null
 	 * @return the total penalty for all employees who violated the soft constraint.
 	 */
-	public int soft_const_1(int[][] chromosome) {
+	public int soft_const_1(int[][] chromosome, int from, int to, Violations v) {
 
 		int total_penalty = 0; // total penalty for all employees
+		int day = (history == null) ? 0 : history.day; // day of the horizon of the first day
 
-		for (int i = 0; i < chromosome.length; i++) {
+		for (int i = from; i < to; i++) {
 			int viol = 0; // count violations for employee i
-			int total_hours = 0;
-			for (int j = 0; j < chromosome[i].length; j++) {
-				if (chromosome[i][j] == 1) // morning shift
+			int total_hours = (history == null) ? 0 : history.hours[i];
+			for (int j = 0; j < chromosome.length; j++) {
+				if ((day + j) % HOURS_PERIOD == 0) // a new period starts
+					total_hours = 0;
+				if (chromosome[j][i] == 1) // morning shift
 					total_hours += Individual.MORNING_SHIFT;
-				if (chromosome[i][j] == 2) // afternoon shift
+				if (chromosome[j][i] == 2) // afternoon shift
 					total_hours += Individual.AFTERNOON_SHIFT;
-				if (chromosome[i][j] == 3) // night shift
+				if (chromosome[j][i] == 3) // night shift
 					total_hours += Individual.NIGHT_SHIFT;
 
 				// mark violation if total hours exceed 70
 				if (total_hours > 70) {
-					viol++;
+					viol += this.mark(v, j, 0);
 					total_hours = 0; // reset total hours after counting a violation
 				}
 			}
 
 			// add penalty for the number of violations
 			total_penalty += viol * this.soft_constraints_weights[0];
+			if (v != null)
+				v.employee[i] += viol * this.soft_constraints_weights[0];
 		}
 		return total_penalty;
 	}
@@ -169,25 +396,28 @@ public class Fitness {
 	 * If an employee works 8 consecutive days, it counts as a violation.
 	 * The total number of violations is multiplied by a weight factor and returned as the fitness penalty.
 	 *
-	 * @param chromosome A 2D array representing the schedule of employees. Each row corresponds to an employee, 
-	 *                   and each column corresponds to a day. A value of 0 indicates a day off, and any other value indicates a working day.
+	 * @param chromosome A 2D array representing the schedule of employees. Each row corresponds to a day, 
+	 *                   and each column corresponds to an employee. A value of 0 indicates a day off, and any other value indicates a working day.
+	 * @param from the first employee to evaluate
+	 * @param to the employee after the last one to evaluate
+	 * @param v the violations of the employees and days to update, or null
 	 * @return The fitness penalty based on the number of violations of the soft constraint.
 	 */
-	public int soft_const_2(int[][] chromosome) {
+	public int soft_const_2(int[][] chromosome, int from, int to, Violations v) {
 
 		int total_penalty = 0; // total penalty for all employees
 
-		for (int i = 0; i < chromosome.length; i++) {
-			int count = 0; // count consecutive working days for employee i
+		for (int i = from; i < to; i++) {
+			int count = (history == null) ? 0 : history.work[i]; // count consecutive working days for employee i
 			int viol = 0; // count violations for employee i
-			for (int j = 0; j < chromosome[i].length; j++) {
-				if (chromosome[i][j] == 0) // day-off
+			for (int j = 0; j < chromosome.length; j++) {
+				if (chromosome[j][i] == 0) // day-off
 					count = 0;	// initialize count
 				else {
 					count++;	// +1 day of work
 					// mark violation if more than 7 consecutive working days
 					if (count > 7) {
-						viol++;
+						viol += this.mark(v, j, 1);
 						count = 1; // reset count to 1 to include current day
 					}
 				}
@@ -195,6 +425,8 @@ public class Fitness {
 
 			// add penalty for the number of violations
 			total_penalty += viol * this.soft_constraints_weights[1];
+			if (v != null)
+				v.employee[i] += viol * this.soft_constraints_weights[1];
 		}
 		return total_penalty;
 	}
@@ -204,25 +436,28 @@ public class Fitness {
 	 * Evaluates the soft constraint for night shifts in the given chromosome.
 	 * This constraint ensures that no employee is assigned more than 4 consecutive night shifts.
 	 *
-	 * @param chromosome A 2D array representing the schedule of employees. Each row corresponds to an employee,
-	 *                   and each column corresponds to a day. The value 3 indicates a night shift.
+	 * @param chromosome A 2D array representing the schedule of employees. Each row corresponds to a day,
+	 *                   and each column corresponds to an employee. The value 3 indicates a night shift.
+	 * @param from the first employee to evaluate
+	 * @param to the employee after the last one to evaluate
+	 * @param v the violations of the employees and days to update, or null
 	 * @return The total penalty score for violations of the soft constraint.
 	 */
-	public int soft_const_3(int[][] chromosome) {
+	public int soft_const_3(int[][] chromosome, int from, int to, Violations v) {
 
 		int total_penalty = 0; // total penalty for all employees
 
-		for (int i = 0; i < chromosome.length; i++) {
-			int count = 0; // count consecutive night shifts for employee i
+		for (int i = from; i < to; i++) {
+			int count = (history == null) ? 0 : history.night[i]; // count consecutive night shifts for employee i
 			int viol = 0; // count violations for employee i
-			for (int j = 0; j < chromosome[i].length; j++) {
-				if (chromosome[i][j] != 3) // not a night shift
+			for (int j = 0; j < chromosome.length; j++) {
+				if (chromosome[j][i] != 3) // not a night shift
 					count = 0;	// initialize count
 				else {
 					count++;	// +1 night shift
 					// mark violation if more than 4 consecutive night shifts
 					if (count > 4) { // found more than 4 consecutive night shifts
-						viol++;
+						viol += this.mark(v, j, 2);
 						count = 1; // reset count to 1 to include current night shift
 					}
 				}
@@ -230,6 +465,8 @@ public class Fitness {
 
 			// add penalty for the number of violations
 			total_penalty += viol * this.soft_constraints_weights[2];
+			if (v != null)
+				v.employee[i] += viol * this.soft_constraints_weights[2];
 		}
 		return total_penalty;
 	}
@@ -240,29 +477,36 @@ public class Fitness {
 	 * morning shifts immediately following night shifts for each employee over a 14-day period.
 	 *
 	 * @param chromosome A 2D array representing the schedule of employees. Each row corresponds 
-	 *                   to an employee, and each column corresponds to a day in the 14-day period.
-	 *                   The value at chromosome[i][j] represents the shift type for employee i on day j.
+	 *                   to a day in the 14-day period, and each column corresponds to an employee.
+	 *                   The value at chromosome[j][i] represents the shift type for employee i on day j.
 	 *                   Shift types are represented as integers, where 3 indicates a night shift and 
 	 *                   1 indicates a morning shift.
+	 * @param from the first employee to evaluate
+	 * @param to the employee after the last one to evaluate
+	 * @param v the violations of the employees and days to update, or null
 	 * @return The total penalty for all employees based on the number of violations of the soft 
 	 *         constraint 4. The penalty is calculated by multiplying the number of violations by 
 	 *         the weight of the soft constraint 4.
 	 */
-	public int soft_const_4(int[][] chromosome) {
+	public int soft_const_4(int[][] chromosome, int from, int to, Violations v) {
 
 		int total_penalty = 0; // total penalty for all employees
 
-		for (int i = 0; i < chromosome.length; i++) {
+		for (int i = from; i < to; i++) {
 			int viol = 0;	// count violations for employee i
-			for (int j = 0; j < chromosome[i].length; j++) {
-				if (j < chromosome[i].length - 1) {  // avoid out of bounds errors
-					if (chromosome[i][j] == 3 && chromosome[i][j+1] == 1) // morning shift after night
-						viol++;
+			if (history != null && history.last[i] == 3 && chromosome[0][i] == 1) // night shift on the day before
+				viol += this.mark(v, 0, 3);
+			for (int j = 0; j < chromosome.length; j++) {
+				if (j < chromosome.length - 1) {  // avoid out of bounds errors
+					if (chromosome[j][i] == 3 && chromosome[j+1][i] == 1) // morning shift after night
+						viol += this.mark(v, j+1, 3);
 				}
 			}
 
 			// add penalty for the number of violations
 			total_penalty += viol * this.soft_constraints_weights[3];
+			if (v != null)
+				v.employee[i] += viol * this.soft_constraints_weights[3];
 		}
 		return total_penalty;
 	}
@@ -273,26 +517,33 @@ public class Fitness {
 	 * immediately following an afternoon shift, which is not allowed.
 	 *
 	 * @param chromosome A 2D array representing the schedule of employees. Each row
-	 *                   corresponds to an employee, and each column corresponds to a day.
-	 *                   The value at chromosome[i][j] indicates the shift type for employee i on day j.
+	 *                   corresponds to a day, and each column corresponds to an employee.
+	 *                   The value at chromosome[j][i] indicates the shift type for employee i on day j.
 	 *                   (e.g., 1 for morning shift, 2 for afternoon shift).
+	 * @param from the first employee to evaluate
+	 * @param to the employee after the last one to evaluate
+	 * @param v the violations of the employees and days to update, or null
 	 * @return The total penalty for all employees based on the number of violations of soft constraint 5.
 	 */
-	public int soft_const_5(int[][] chromosome) {
+	public int soft_const_5(int[][] chromosome, int from, int to, Violations v) {
 
 		int total_penalty = 0; // total penalty for all employees
 
-		for (int i = 0; i < chromosome.length; i++) {
+		for (int i = from; i < to; i++) {
 			int viol = 0;	// count violations for employee i
-			for (int j = 0; j < chromosome[i].length; j++) {
-				if (j < chromosome[i].length - 1) {  // avoid out of bounds errors
-					if (chromosome[i][j] == 2 && chromosome[i][j+1] == 1)  // morning shift after afternoon
-						viol++;
+			if (history != null && history.last[i] == 2 && chromosome[0][i] == 1) // afternoon shift on the day before
+				viol += this.mark(v, 0, 4);
+			for (int j = 0; j < chromosome.length; j++) {
+				if (j < chromosome.length - 1) {  // avoid out of bounds errors
+					if (chromosome[j][i] == 2 && chromosome[j+1][i] == 1)  // morning shift after afternoon
+						viol += this.mark(v, j+1, 4);
 				}
 			}
 
 			// add penalty for the number of violations
 			total_penalty += viol * this.soft_constraints_weights[4];
+			if (v != null)
+				v.employee[i] += viol * this.soft_constraints_weights[4];
 		}
 		return total_penalty;
 	}
@@ -308,26 +559,33 @@ public class Fitness {
 	 * penalty based on the weight of the soft constraint.
 	 *
 	 * @param chromosome A 2D array representing the schedule of employees, where 
-	 *                   each row corresponds to an employee and each column 
-	 *                   corresponds to a day in the schedule.
+	 *                   each row corresponds to a day in the schedule and each column 
+	 *                   corresponds to an employee.
+	 * @param from the first employee to evaluate
+	 * @param to the employee after the last one to evaluate
+	 * @param v the violations of the employees and days to update, or null
 	 * @return The total penalty for all employees for violations of the soft 
 	 *         constraint.
 	 */
-	public int soft_const_6(int[][] chromosome) {
+	public int soft_const_6(int[][] chromosome, int from, int to, Violations v) {
 
 		int total_penalty = 0; // total penalty for all employees
 
-		for (int i = 0; i < chromosome.length; i++) {
+		for (int i = from; i < to; i++) {
 			int viol = 0;	// count violations for employee i
-			for (int j = 0; j < chromosome[i].length; j++) {
-				if (j < chromosome[i].length - 1) {  // avoid out of bounds errors
-					if (chromosome[i][j] == 3 && chromosome[i][j+1] == 2) // afternoon shift after night
-						viol++;		
+			if (history != null && history.last[i] == 3 && chromosome[0][i] == 2) // night shift on the day before
+				viol += this.mark(v, 0, 5);
+			for (int j = 0; j < chromosome.length; j++) {
+				if (j < chromosome.length - 1) {  // avoid out of bounds errors
+					if (chromosome[j][i] == 3 && chromosome[j+1][i] == 2) // afternoon shift after night
+						viol += this.mark(v, j+1, 5);		
 				}
 			}
 
 			// add penalty for the number of violations
 			total_penalty += viol * this.soft_constraints_weights[5];
+			if (v != null)
+				v.employee[i] += viol * this.soft_constraints_weights[5];
 		}
 		return total_penalty;
 	} 
@@ -336,29 +594,43 @@ public class Fitness {
 	 * Calculates the penalty for violating the constraint of having four consecutive night shifts
 	 * without at least two days off afterwards for each employee.
 	 *
-	 * @param chromosome A 2D array representing the schedule of employees, where each row corresponds to an employee
-	 *                   and each column corresponds to a day. The value 3 represents a night shift.
+	 * @param chromosome A 2D array representing the schedule of employees, where each row corresponds to a day
+	 *                   and each column corresponds to an employee. The value 3 represents a night shift.
+	 * @param from the first employee to evaluate
+	 * @param to the employee after the last one to evaluate
+	 * @param v the violations of the employees and days to update, or null
 	 * @return The total penalty for all employees based on the number of violations of the constraint.
 	 */
-	public int soft_const_7(int[][] chromosome) {
+	public int soft_const_7(int[][] chromosome, int from, int to, Violations v) {
 
 		int total_penalty = 0; // total penalty for all employees
 
-		for (int i = 0; i < chromosome.length; i++) {
+		for (int i = from; i < to; i++) {
 			int count = 0; // count consecutive night shifts for employee i
 			int viol = 0; // count violations for employee i
-			for (int j = 0; j < chromosome[i].length; j++) {
-				if (chromosome[i][j] != 3) { // not a night shift assigned
+			if (history != null) {
+				count = history.nights[i];
+				int p = history.night_check[i];	// 4th night shift before the chromosome, checked on its first days
+				if (p < 0) {
+					if (p < chromosome.length - 2) {
+						if ((p == -1 || history.last[i] != 0) && chromosome[p+2][i] != 0 && (p == -2 || chromosome[p+1][i] != 0))
+							viol += this.mark(v, 0, 6);
+					} else
+						viol += this.mark(v, 0, 6); // just mark a violation
+				}
+			}
+			for (int j = 0; j < chromosome.length; j++) {
+				if (chromosome[j][i] != 3) { // not a night shift assigned
 					count = 0;	// initialize count
 				}
 				else {
 					count++;			// +1 day of night shift
 					if (count == 4) {  // found 4 consecutive night shifts
-						if (j < chromosome[i].length - 2) {	// avoid out of bounds errors
-							if (chromosome[i][j+1] != 0 && chromosome[i][j+2] != 0)
-								viol++;
+						if (j < chromosome.length - 2) {	// avoid out of bounds errors
+							if (chromosome[j+1][i] != 0 && chromosome[j+2][i] != 0)
+								viol += this.mark(v, j, 6);
 						} else
-							viol++; // just mark a violation
+							viol += this.mark(v, j, 6); // just mark a violation
 						count = 0; // reset count after counting a violation
 					}
 				}
@@ -366,6 +638,8 @@ public class Fitness {
 
 			// add penalty for the number of violations
 			total_penalty += viol * this.soft_constraints_weights[6];
+			if (v != null)
+				v.employee[i] += viol * this.soft_constraints_weights[6];
 		}
 		return total_penalty;
 	}
@@ -379,29 +653,32 @@ public class Fitness {
 	 * penalty is calculated based on the number of such violations.
 	 *
 	 * @param chromosome A 2D array representing the schedule of employees. Each row
-	 *                   corresponds to an employee, and each column corresponds to
-	 *                   a day. A value of 0 indicates no shift assigned, and any
+	 *                   corresponds to a day, and each column corresponds to
+	 *                   an employee. A value of 0 indicates no shift assigned, and any
 	 *                   other value indicates a shift assigned.
+	 * @param from the first employee to evaluate
+	 * @param to the employee after the last one to evaluate
+	 * @param v the violations of the employees and days to update, or null
 	 * @return The total penalty for all employees based on the number of violations.
 	 */
-	public int soft_const_8(int[][] chromosome) {
+	public int soft_const_8(int[][] chromosome, int from, int to, Violations v) {
 
 		int total_penalty = 0; // total penalty for all employees
 
-		for (int i = 0; i < chromosome.length; i++) {
-			int count = 0; // count consecutive night shifts for employee i
+		for (int i = from; i < to; i++) {
+			int count = (history == null) ? 0 : history.shifts[i]; // count consecutive shifts for employee i
 			int viol = 0; // count violations for employee i
-			for (int j = 0; j < chromosome[i].length; j++) {
-				if (chromosome[i][j] == 0) { // not a shift assigned
+			for (int j = 0; j < chromosome.length; j++) {
+				if (chromosome[j][i] == 0) { // not a shift assigned
 					count = 0;	// initialize count
 				}
 				else {
 					count++;			// +1 day of shift
 					if (count == 7) { // found 7 consecutive shifts
-						if (j < chromosome[i].length - 2 && chromosome[i][j + 1] != 0 && chromosome[i][j + 2] != 0) {
-							viol++;
+						if (j < chromosome.length - 2 && chromosome[j + 1][i] != 0 && chromosome[j + 2][i] != 0) {
+							viol += this.mark(v, j, 7);
 						} else
-							viol++; // just mark a violation
+							viol += this.mark(v, j, 7); // just mark a violation
 						count = 0; // reset count after counting a violation
 					}
 				}
@@ -409,6 +686,8 @@ public class Fitness {
 
 			// add penalty for the number of violations
 			total_penalty += viol * this.soft_constraints_weights[7];
+			if (v != null)
+				v.employee[i] += viol * this.soft_constraints_weights[7];
 		}
 		return total_penalty;
 	}
@@ -419,24 +698,35 @@ public class Fitness {
 	 * a day off (0) and then another working day (non-zero) within a 14-day period.
 	 *
 	 * @param chromosome A 2D array representing the schedule of employees. Each row corresponds
-	 *                   to an employee, and each column corresponds to a day in the schedule.
+	 *                   to a day in the schedule, and each column corresponds to an employee.
+	 * @param from the first employee to evaluate
+	 * @param to the employee after the last one to evaluate
+	 * @param v the violations of the employees and days to update, or null
 	 * @return The total penalty for all employees based on the number of violations of soft constraint 9.
 	 */
-	public int soft_const_9(int[][] chromosome) {
+	public int soft_const_9(int[][] chromosome, int from, int to, Violations v) {
 
 		int total_penalty = 0; // total penalty for all employees
 
-		for (int i = 0; i < chromosome.length; i++) {
+		for (int i = from; i < to; i++) {
 			int viol = 0; // count violations for employee i
-			for (int j = 0; j < chromosome[i].length; j++) {
-				if (j < chromosome[i].length - 2) {	// avoid out of bound errors
-					if (chromosome[i][j] != 0 && chromosome[i][j+1] == 0 && chromosome[i][j+2] != 0)
-						viol++;
+			if (history != null) {	// patterns starting on the days before
+				if (history.before_last[i] > 0 && history.last[i] == 0 && chromosome[0][i] != 0)
+					viol += this.mark(v, 0, 8);
+				if (history.last[i] > 0 && chromosome.length > 1 && chromosome[0][i] == 0 && chromosome[1][i] != 0)
+					viol += this.mark(v, 0, 8);
+			}
+			for (int j = 0; j < chromosome.length; j++) {
+				if (j < chromosome.length - 2) {	// avoid out of bound errors
+					if (chromosome[j][i] != 0 && chromosome[j+1][i] == 0 && chromosome[j+2][i] != 0)
+						viol += this.mark(v, j+1, 8);
 				}
 			}
 			
 			// add penalty for the number of violations
 			total_penalty += viol * this.soft_constraints_weights[8];
+			if (v != null)
+				v.employee[i] += viol * this.soft_constraints_weights[8];
 		}
 		return total_penalty;
 	}
@@ -446,25 +736,36 @@ public class Fitness {
 	 * The constraint checks for patterns where an employee has a day off (0) followed by a working day (non-zero)
 	 * and then another day off (0) within a 14-day period.
 	 *
-	 * @param chromosome A 2D array representing the schedule of employees. Each row corresponds to an employee,
-	 *                   and each column corresponds to a day in the schedule.
+	 * @param chromosome A 2D array representing the schedule of employees. Each row corresponds to a day,
+	 *                   and each column corresponds to an employee.
+	 * @param from the first employee to evaluate
+	 * @param to the employee after the last one to evaluate
+	 * @param v the violations of the employees and days to update, or null
 	 * @return The total penalty for all employees based on the number of violations of the soft constraint.
 	 */
-	public int soft_const_10(int[][] chromosome) {
+	public int soft_const_10(int[][] chromosome, int from, int to, Violations v) {
 
 		int total_penalty = 0; // total penalty for all employees
 
-		for (int i = 0; i < chromosome.length; i++) {
+		for (int i = from; i < to; i++) {
 			int viol = 0; // count violations for employee i
-			for (int j = 0; j < chromosome[i].length; j++) {
-				if (j < chromosome[i].length - 2) {	// avoid out of bound errors
-					if (chromosome[i][j] == 0 && chromosome[i][j+1] != 0 && chromosome[i][j+2] == 0)
-						viol++;
+			if (history != null) {	// patterns starting on the days before
+				if (history.before_last[i] == 0 && history.last[i] > 0 && chromosome[0][i] == 0)
+					viol += this.mark(v, 0, 9);
+				if (history.last[i] == 0 && chromosome.length > 1 && chromosome[0][i] != 0 && chromosome[1][i] == 0)
+					viol += this.mark(v, 0, 9);
+			}
+			for (int j = 0; j < chromosome.length; j++) {
+				if (j < chromosome.length - 2) {	// avoid out of bound errors
+					if (chromosome[j][i] == 0 && chromosome[j+1][i] != 0 && chromosome[j+2][i] == 0)
+						viol += this.mark(v, j+1, 9);
 				}
 			}
 			
 			// add penalty for the number of violations
 			total_penalty += viol * this.soft_constraints_weights[9];
+			if (v != null)
+				v.employee[i] += viol * this.soft_constraints_weights[9];
 		}
 		return total_penalty;
 	}
@@ -473,24 +774,216 @@ public class Fitness {
 	/**
 	 * Calculates the penalty for violating soft constraint 11 for a given chromosome.
 	 * Soft constraint 11 checks that an employee works at most one weekend (of the two in a 14-day period).
+	 * For longer planning horizons, every two consecutive weekends of work count as a violation.
+	 * A weekend of work is a Saturday and a Sunday both with a shift assigned.
 	 * 
-	 * @param chromosome A 2D array representing the chromosome, where each row corresponds to an employee's schedule.
+	 * @param chromosome A 2D array representing the chromosome, where each row corresponds to the shifts of a day.
+	 * @param from the first employee to evaluate
+	 * @param to the employee after the last one to evaluate
+	 * @param v the violations of the employees and days to update, or null
 	 * @return The total penalty for all employees based on the number of violations of soft constraint 11.
 	 */
-	public int soft_const_11(int[][] chromosome) {
+	public int soft_const_11(int[][] chromosome, int from, int to, Violations v) {
 
 		int total_penalty = 0; // total penalty for all employees
 
-		for (int i = 0; i < chromosome.length; i++) {
+		for (int i = from; i < to; i++) {
 			int viol = 0;	// count violations for employee i
-			if (chromosome[i][5] != 0 && chromosome[i][6] != 0 
-				&& chromosome[i][12] != 0 && chromosome[i][13] != 0)
-					viol++;
+			boolean last_weekend = false;	// worked the previous weekend
+			if (history != null) {
+				last_weekend = history.weekend[i];
+				if (instance.getStartDay() == 6 && history.last[i] >= 0) {	// Saturday on the day before
+					boolean weekend = history.last[i] != 0 && chromosome[0][i] != 0;
+					if (weekend && last_weekend)
+						viol += this.mark(v, 0, 10);
+					last_weekend = weekend;
+				}
+			}
+			for (int j = 0; j < chromosome.length - 1; j++) {
+				if (instance.getWeekday(j) == 5) {	// Saturday
+					boolean weekend = chromosome[j][i] != 0 && chromosome[j+1][i] != 0;
+					if (weekend && last_weekend)
+						viol += this.mark(v, j, 10);
+					last_weekend = weekend;
+				}
+			}
 
 			// add penalty for the number of violations
 			total_penalty += viol * this.soft_constraints_weights[10];
+			if (v != null)
+				v.employee[i] += viol * this.soft_constraints_weights[10];
 		}
 		return total_penalty;
 	}
-}
 
+	/**
+	 * Calculates the penalty for the deviation of a chromosome from the reference schedule,
+	 * i.e. the number of shifts that differ from it multiplied by the deviation weight.
+	 *
+	 * @param chromosome A 2D array representing the schedule of employees, by day.
+	 * @param from the first employee to evaluate
+	 * @param to the employee after the last one to evaluate
+	 * @return The total penalty for all the shifts changed from the reference schedule.
+	 */
+	public int deviation(int[][] chromosome, int from, int to) {
+
+		int changes = 0;
+		for (int i = from; i < to; i++) {
+			for (int j = 0; j < chromosome.length; j++) {
+				if (chromosome[j][i] != reference[j][i])
+					changes++;
+			}
+		}
+		return changes * deviation_weight;
+	}
+
+	/**
+	 * Sets the schedule to stay close to when rescheduling. Every shift that differs from it
+	 * adds the weight to the penalty of a chromosome.
+	 *
+	 * @param reference the reference schedule, by day, null to disable the deviation penalty
+	 * @param deviation_weight the penalty for every changed shift
+	 */
+	public void setReference(int[][] reference, int deviation_weight) {
+		this.reference = reference;
+		this.deviation_weight = deviation_weight;
+	}
+
+	// Record the violations of every employee and day in the individuals evaluated from now on
+	public void setProfiling(boolean profiling) {
+		this.profiling = profiling;
+	}
+
+	/**
+	 * Sets the state of the employees at the end of the days before the chromosome, so that a window of a
+	 * longer horizon is evaluated as a continuation of the days already scheduled: runs of consecutive
+	 * shifts and night shifts, working hours, shifts of the last two days and worked weekends.
+	 *
+	 * @param history the state before the first day of the chromosome, null if the chromosome starts the horizon
+	 */
+	public void setHistory(History history) {
+		if(history != null && model != null)
+			throw new IllegalStateException("A constraint model cannot continue a history");
+		this.history = history;
+	}
+
+	/**
+	 * Evaluates the soft constraints of a compiled constraint model instead of the soft constraints above.
+	 *
+	 * @param model the constraint model, null for the soft constraints of the WHPP problem
+	 */
+	public void setModel(ConstraintModel model) {
+		if(history != null && model != null)
+			throw new IllegalStateException("A constraint model cannot continue a history");
+		this.model = model;
+		this.day_type = (model == null) ? null : ConstraintModel.dayTypes(instance);
+	}
+
+	/**
+	 * Returns the bound under which the penalty of a schedule meeting the demand cannot go (see
+	 * LowerBound), for the soft constraints and history set, null for the soft constraints of a rule file.
+	 */
+	public LowerBound getLowerBound() {
+		if(model != null)
+			return null;
+		return new LowerBound(instance, soft_constraints_weights, history);
+	}
+
+	/**
+	 * State of every employee at the end of a part of the horizon, with the counters of the soft constraints
+	 * as they are when the evaluation of the whole horizon reaches that day. An empty history (nothing
+	 * scheduled before) gives the same penalty as no history.
+	 */
+	public static class History {
+
+		final int day;				// number of days of the horizon before, for the periods of constraint 1
+		final int[] hours;			// working hours of the current period counted by constraint 1
+		final int[] work;			// consecutive shifts counted by constraint 2
+		final int[] night;			// consecutive night shifts counted by constraint 3
+		final int[] nights;			// consecutive night shifts counted by constraint 7
+		final int[] shifts;			// consecutive shifts counted by constraint 8
+		final int[] night_check;	// day of a 4th night shift whose next days are not scheduled yet (-1 or -2), 0 for none
+		final int[] last;			// shift of the last day, -1 for none
+		final int[] before_last;	// shift of the day before the last day, -1 for none
+		final boolean[] weekend;	// worked the last weekend counted by constraint 11
+
+		/**
+		 * Creates the history of a horizon with nothing scheduled yet.
+		 *
+		 * @param employees the number of employees
+		 */
+		public History(int employees) {
+			this(employees, 0);
+		}
+
+		private History(int employees, int day) {
+
+			this.day = day;
+			this.hours = new int[employees];
+			this.work = new int[employees];
+			this.night = new int[employees];
+			this.nights = new int[employees];
+			this.shifts = new int[employees];
+			this.night_check = new int[employees];
+			this.last = new int[employees];
+			this.before_last = new int[employees];
+			this.weekend = new boolean[employees];
+			Arrays.fill(last, -1);
+			Arrays.fill(before_last, -1);
+		}
+
+		/**
+		 * Returns the history at the end of the first days of a window, scheduled after this history.
+		 *
+		 * @param genes the schedule of the window, by day
+		 * @param days the number of days of the window to add to the history
+		 * @param window the instance of the window, for the weekdays
+		 * @return the history after the days
+		 */
+		public History advance(int[][] genes, int days, Instance window) {
+
+			History next = new History(hours.length, day + days);
+			for (int i = 0; i < hours.length; i++) {
+				int h = hours[i], c2 = work[i], c3 = night[i], c7 = nights[i], c8 = shifts[i], check = 0;
+				if (night_check[i] < 0 && night_check[i] + 2 >= days)	// still not checked after these days
+					check = night_check[i] - days;
+				boolean last_weekend = weekend[i];
+				if (window.getStartDay() == 6 && last[i] >= 0)	// Saturday on the day before
+					last_weekend = last[i] != 0 && genes[0][i] != 0;
+
+				for (int j = 0; j < days; j++) {
+					int s = genes[j][i];
+					if ((day + j) % HOURS_PERIOD == 0)
+						h = 0;
+					h += (s == 1) ? Individual.MORNING_SHIFT : (s == 2) ? Individual.AFTERNOON_SHIFT : (s == 3) ? Individual.NIGHT_SHIFT : 0;
+					if (h > 70)
+						h = 0;
+					c2 = (s == 0) ? 0 : (c2 == 7) ? 1 : c2 + 1;
+					c3 = (s != 3) ? 0 : (c3 == 4) ? 1 : c3 + 1;
+					c7 = (s != 3) ? 0 : c7 + 1;
+					if (c7 == 4) {
+						c7 = 0;
+						if (j >= days - 2)
+							check = j - days;	// next days in the following window
+					}
+					c8 = (s == 0) ? 0 : c8 + 1;
+					if (c8 == 7)
+						c8 = 0;
+					if (j < days - 1 && window.getWeekday(j) == 5)	// Saturday
+						last_weekend = s != 0 && genes[j+1][i] != 0;
+				}
+
+				next.hours[i] = h;
+				next.work[i] = c2;
+				next.night[i] = c3;
+				next.nights[i] = c7;
+				next.shifts[i] = c8;
+				next.night_check[i] = check;
+				next.last[i] = genes[days-1][i];
+				next.before_last[i] = (days > 1) ? genes[days-2][i] : last[i];
+				next.weekend[i] = last_weekend;
+			}
+			return next;
+		}
+	}
+}
\ No newline at end of file
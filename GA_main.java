@@ -9,11 +9,13 @@
 **************************************************************************/		 
 
 import java.io.IOException;
-import java.util.Random;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 
 public class GA_main {
 
-	public static void main(String[] args) throws IOException {
+	public static void main(String[] args) throws IOException, InterruptedException {
 
 		// crossover probability
 		double p_cross = 0.85;
@@ -24,299 +26,320 @@ public class GA_main {
 		// max number of iterations
 		int iter_max = 200;
 		
-		if(args.length < 1) {}
-		else if(args[0].equals("-i")) {
-			popSize = Integer.parseInt(args[1]);
-			iter_max = Integer.parseInt(args[2]);
-			p_cross = Double.parseDouble(args[3]);
-			p_mut = Double.parseDouble(args[4]);
+		// adaptive rates: 0 fixed, 1 generation-level, 2 generation-level and per-individual
+		int adapt = 0;
+		// wall-clock budget in seconds, 0 to stop after iter_max generations
+		double time_budget = 0;
+		// stop as soon as this penalty is reached
+		int target_penalty = 0;
+		// generations without improvement before a partial restart, 0 for no restarts
+		int stagnation_limit = 0;
+		// problem instance file, null for WHPP
+		String instance_file = null;
+		// soft constraint rule file, null for the WHPP soft constraints
+		String rules_file = null;
+		// warm start: previous schedule and final population files, unavailable employees
+		// (employee:from-to, counted from 1) and penalty for every changed shift
+		String previous_file = null;
+		String population_file = null;
+		List<String> unavailable = new ArrayList<>();
+		int deviation_weight = 0;
+		// fitness evaluation of the generational engine: auto, serial, inter or intra
+		String evaluation = "auto";
+		// mutation operator: random, shift or guided
+		String mutation = "random";
+		// seed of the random number generator, null for a different run every time
+		Long random_seed = null;
+		// worker threads of the asynchronous steady-state engine, 0 for the generational engine
+		int steady_threads = 0;
+		// engine: ga, or the local search sa (annealing), tabu or pt (parallel tempering)
+		String engine = "ga";
+		// replicas of parallel tempering, 0 for the default
+		int replicas = 0;
+		// files to write the best schedule and the final population to
+		String output_file = null;
+		String output_population = null;
+		// file to export the best schedules to (csv, json or bin) and the number of schedules, the best first
+		String export_file = null;
+		int export_size = 1;
+		
+		for(int a = 0; a < args.length; a++) {
+			if(args[a].equals("-i")) {
+				popSize = Integer.parseInt(args[++a]);
+				iter_max = Integer.parseInt(args[++a]);
+				p_cross = Double.parseDouble(args[++a]);
+				p_mut = Double.parseDouble(args[++a]);
+			} else if(args[a].equals("-a"))
+				adapt = 1;
+			else if(args[a].equals("-ai"))
+				adapt = 2;
+			else if(args[a].equals("-t"))
+				time_budget = Double.parseDouble(args[++a]);
+			else if(args[a].equals("-p"))
+				target_penalty = Integer.parseInt(args[++a]);
+			else if(args[a].equals("-s"))
+				stagnation_limit = Integer.parseInt(args[++a]);
+			else if(args[a].equals("-f"))
+				instance_file = args[++a];
+			else if(args[a].equals("-r"))
+				rules_file = args[++a];
+			else if(args[a].equals("-w"))
+				previous_file = args[++a];
+			else if(args[a].equals("-wp"))
+				population_file = args[++a];
+			else if(args[a].equals("-u"))
+				unavailable.add(args[++a]);
+			else if(args[a].equals("-dev"))
+				deviation_weight = Integer.parseInt(args[++a]);
+			else if(args[a].equals("-m"))
+				mutation = args[++a];
+			else if(args[a].equals("-ev"))
+				evaluation = args[++a];
+			else if(args[a].equals("-seed"))
+				random_seed = Long.parseLong(args[++a]);
+			else if(args[a].equals("-ss"))
+				steady_threads = Integer.parseInt(args[++a]);
+			else if(args[a].equals("-e"))
+				engine = args[++a];
+			else if(args[a].equals("-rep"))
+				replicas = Integer.parseInt(args[++a]);
+			else if(args[a].equals("-o"))
+				output_file = args[++a];
+			else if(args[a].equals("-op"))
+				output_population = args[++a];
+			else if(args[a].equals("-x"))
+				export_file = args[++a];
+			else if(args[a].equals("-xe"))
+				export_size = Integer.parseInt(args[++a]);
 		}
 
-		System.out.println("Genetic Algorithm execution with Population = "+popSize+ " and iterations = "+iter_max);
-		System.out.println("Crossover rate (Probability): "+p_cross);
-		System.out.println("Mutation rate (Probability): "+p_mut);
-		
-		long startTime = System.currentTimeMillis();
-		// initial population
-		Population pop = new Population(popSize);
-		
-		// generate initial feasible population
-		// hard constraints satisfied for every chromosome
-		pop.InitialisePop();
-		
-		// calculate the fitness of each individual of initial population
-		Fitness fit = new Fitness();
-		
-		for(int i = 0; i < popSize; i++)
-			fit.calc_Fitness(pop.getIndividual(i));
-		
-		// Sort the population in descending order of penalty cost
-		pop.FitnessSort();
-		
-		if(pop.getIndividual(popSize-1).getTotalPenalty() == 0) {
-			System.out.println("\nSolution found!!");
-			System.out.println("\nThe solution has fitness: " +pop.getIndividual(popSize-1).getTotalPenalty());
-			System.out.println("\nThe chromosome is: ");
-			pop.getIndividual(popSize-1).printIndividual();
-			return;	
+		// the asynchronous steady-state engine runs plain operators from a random population
+		if(steady_threads > 0) {
+			List<String> ignored = new ArrayList<>();
+			if(!engine.equals("ga"))
+				ignored.add("-e");
+			if(previous_file != null || population_file != null || !unavailable.isEmpty() || deviation_weight > 0)
+				ignored.add("-w/-wp/-u/-dev");
+			if(adapt > 0)
+				ignored.add("-a/-ai");
+			if(!mutation.equals("random"))
+				ignored.add("-m");
+			if(!evaluation.equals("auto"))
+				ignored.add("-ev");
+			if(stagnation_limit > 0)
+				ignored.add("-s");
+			if(random_seed != null)
+				ignored.add("-seed");
+			if(output_population != null)
+				ignored.add("-op");
+			if(export_size != 1)
+				ignored.add("-xe");
+			if(!ignored.isEmpty())
+				throw new IllegalArgumentException("The steady-state engine (-ss) does not support " + String.join(", ", ignored));
 		}
-		
-		// count generations
-		int generations = 0;
 
-		/** Evolution of the genetic algorithm:
-		 * 1. Rank Selection
-		 * 2. Crossover
-		 * 3. Mutation
-		 * 4. Fitness Calculation
-		*/
-		while(iter_max > 0) {
-			
-			// Evolve a population
-			Population newPopulation = new Population(popSize);
-			 for (int i = 0; i < popSize; i++) {
-	            Individual indiv1 = RankSelection(popSize, pop); // select parent 1
-	            Individual indiv2 = RankSelection(popSize, pop); // select parent 2
-	            Individual newIndiv = uni_cross(indiv1, indiv2, p_cross); // uniform crossover and create offspring
-	            Individual mutated = rand_mut(newIndiv, p_mut); // randomly mutate offspring
-	            newPopulation.setIndividual(i, mutated); // add to new population
-	            fit.calc_Fitness(newPopulation.getIndividual(i)); // calculate fitness of each chromosome with respect to penalty cost
-	     	}
+		// the local search engines move one schedule, without the operators and population of the genetic algorithm
+		if(!engine.equals("ga")) {
+			List<String> ignored = new ArrayList<>();
+			if(adapt > 0)
+				ignored.add("-a/-ai");
+			if(!mutation.equals("random"))
+				ignored.add("-m");
+			if(!evaluation.equals("auto"))
+				ignored.add("-ev");
+			if(stagnation_limit > 0)
+				ignored.add("-s");
+			if(population_file != null)
+				ignored.add("-wp");
+			if(output_population != null)
+				ignored.add("-op");
+			if(export_size != 1)
+				ignored.add("-xe");
+			if(!ignored.isEmpty())
+				throw new IllegalArgumentException("The local search engine (-e " + engine + ") does not support " + String.join(", ", ignored));
+		}
 
-	     	newPopulation.FitnessSort();	// sort new population in descending order of penalty cost
-	     		
-	     	pop = newPopulation;
-	     	
-	     	generations++;
-	     	
-			if(pop.getIndividual(popSize-1).getTotalPenalty() == 0) {
-				System.out.println("\nSolution found in generation " + generations);
-				System.out.println("\nThe solution has fitness: " +pop.getIndividual(popSize-1).getTotalPenalty());
-				System.out.println("\nThe chromosome is: ");
-				pop.getIndividual(popSize-1).printIndividual();
-				long estTime = System.currentTimeMillis() - startTime;
-				System.out.println("Elapsed Time: "+estTime/1000 +" sec");
-				return;	
-			}
-	     	
-	     	// calculate average fitness of chromosomes in this generation
-	     	double sum_fit = 0;
-	     	for(int i = 0; i < popSize; i++) {
-	     		sum_fit += pop.getIndividual(i).getTotalPenalty();
-	     	}
-	     	double avg = (double) Math.round((sum_fit/popSize)*100d)/100d;
-	     	System.out.println("The average fitness of generation " + generations + " is: " + avg);
+		Instance instance = Instance.WHPP;
+		if(instance_file != null)
+			instance = Instance.read(Path.of(instance_file));
 
-	     	iter_max--;
-		}
-		
-		long estTime = System.currentTimeMillis() - startTime;
-		System.out.println("Elapsed Time: "+estTime/1000 +" sec");
+		ConstraintModel model = null;
+		if(rules_file != null)
+			model = ConstraintModel.read(Path.of(rules_file));
 
-		// Print the schedule after algorithm termination
-		Individual bestIndividual = pop.getIndividual(popSize - 1);
-		System.out.println("\nSchedule after termination:");
-		System.out.println("Total penalty: " + bestIndividual.getTotalPenalty());
-		System.out.println("The chromosome is: ");
-		bestIndividual.printIndividual();
-	}
-	
-	/**
-	 * Selects an individual from the population using rank-based selection.
-	 * 
-	 * In rank-based selection, individuals are assigned ranks based on their fitness.
-	 * The probability of selecting an individual is proportional to its rank.
-	 * 
-	 * Rank-based selection is chosen because it is less biased than roulette wheel selection.
-	 * Also, it is less sensitive to scaling of fitness values. 
-	 * 
-	 * @param populationSize the size of the population
-	 * @param pop the population from which to select an individual
-	 * @return the selected individual
-	 */
-	private static Individual RankSelection(int populationSize, Population pop) {
-		
-		int[] ranks = new int[populationSize];
-		int sum = 0;
-		for(int i = 0; i < populationSize; i++) {
-			ranks[i] = i+1; // Assign ranks to chromosomes
-			sum += ranks[i]; // Calculate sum of all chromosome ranks in population
+		GeneticAlgorithm ga = new GeneticAlgorithm(instance, popSize, iter_max, p_cross, p_mut);
+		ga.setConstraintModel(model);
+		if(adapt > 0)
+			ga.setAdaptiveRates(new AdaptiveRates(p_cross, p_mut, adapt == 2));
+		ga.setEvaluation(GeneticAlgorithm.Evaluation.valueOf(evaluation.toUpperCase()));
+		ga.setMutation(GeneticAlgorithm.Mutation.valueOf(mutation.toUpperCase()));
+		if(random_seed != null)
+			ga.setRandomSeed(random_seed);
+		ga.setTimeBudget((long) (time_budget * 1000));
+		ga.setTargetPenalty(target_penalty);
+		if(stagnation_limit > 0) {
+			ga.setStagnationLimit(stagnation_limit);
+			ga.setDiversityFloor(0.05);
 		}
-		
-		// Generate random number from interval (0,sum) - r.
-		Random rand = new Random();
-		int r = rand.nextInt((int)(sum+1));
-		
-		// Go through the population and sum ranks until you reach r.
-		// When the sum s is greater then r, stop and return the chromosome where you are.
-		int s = 0;
-		for(int i = 0; i < populationSize; i++) {
-			s = s + ranks[i];
-			if(s > r)
-				return pop.getIndividual(i);
+
+		WarmStart warm_start = null;
+		if(previous_file != null) {
+			warm_start = new WarmStart(instance, Individual.readSchedules(Path.of(previous_file), instance).get(0));
+			if(population_file != null)
+				warm_start.setPopulation(Individual.readSchedules(Path.of(population_file), instance));
+			for(String u : unavailable) {	// employee:from-to
+				String[] parts = u.split("[:-]");
+				int from = Integer.parseInt(parts[1]);
+				int to = parts.length > 2 ? Integer.parseInt(parts[2]) : from;
+				warm_start.setUnavailable(Integer.parseInt(parts[0]) - 1, from - 1, to - 1);
+			}
+			warm_start.setDeviationWeight(deviation_weight);
+			ga.setWarmStart(warm_start);
+			System.out.println("Warm start from " + previous_file);
 		}
 
-		return pop.getIndividual(rand.nextInt(populationSize-1));
-	}
-	
-	/**
-	 * Uniform Crossover Operator implementation.
-	 * Performs crossover operation between two parent individuals to produce an offspring.
-	 * 
-	 * @param id1 The first parent individual.
-	 * @param id2 The second parent individual.
-	 * @param p_cross The probability of performing crossover.
-	 * @return The offspring individual resulting from the crossover operation, or the fittest parent if crossover is not performed.
-	 */
-	private static Individual uni_cross(Individual id1, Individual id2, double p_cross) {
+		if(rules_file != null)
+			System.out.println("Soft constraints: " + model.getRules() + " rules of " + rules_file);
+		if(instance_file != null)
+			System.out.println("Instance: " + instance.getName() + " (" + instance.getEmployees() + " employees, " + instance.getDays() + " days)");
 
-		Individual offspring = new Individual();
+		if(!engine.equals("ga")) {
+			LocalSearch.Method method = engine.equals("sa") ? LocalSearch.Method.ANNEALING
+										: engine.equals("tabu") ? LocalSearch.Method.TABU
+										: engine.equals("pt") ? LocalSearch.Method.TEMPERING : null;
+			if(method == null)
+				throw new IllegalArgumentException("Unknown engine " + engine + ", expected ga, sa, tabu or pt");
+			// a move rescores two employees: as many rows scored as iter_max generations of the genetic algorithm
+			LocalSearch ls = new LocalSearch(instance, method, (long) popSize * iter_max * instance.getEmployees() / 2);
+			ls.setConstraintModel(model);
+			if(random_seed != null)
+				ls.setRandomSeed(random_seed);
+			if(replicas > 0)
+				ls.setReplicas(replicas);
+			ls.setTimeBudget((long) (time_budget * 1000));
+			ls.setTargetPenalty(target_penalty);
+			ls.setWarmStart(warm_start);	// repaired for the unavailable employees, with the deviation weight
+			System.out.println("Local search engine: " + method.toString().toLowerCase());
 
-		if(Math.random() <= p_cross) {	// create offspring
-		
-						
-			int[][] parent1 = id1.getChromosome();
-			int[][] parent2 = id2.getChromosome();
-			
-			int[][] offspring_genes = offspring.getChromosome();
-			
-			double probability;
-			// crossover alternately
-			for(int j = 0; j < 14; j++) {
-				probability = Math.random();
-				for(int i = 0; i < 30; i++) {	// choose genes from one of the parents with probability 50%
-					if(probability <= 0.5) 
-						offspring_genes[i][j] = parent1[i][j];
-					else 
-						offspring_genes[i][j] = parent2[i][j];
-				}
-			}
-			
-			offspring.setChromosome(offspring_genes);
-			return offspring;
-		} else {	// return fittest parent
-			if(id1.getTotalPenalty() > id2.getTotalPenalty()) {
-				offspring.setChromosome(id1.getChromosome());
-				return offspring;
-			}
-			else {
-				offspring.setChromosome(id2.getChromosome());
-				return offspring;
-			}
+			Individual bestIndividual = ls.run();
+			System.out.println("Moves: " + ls.getMoves() + ", best found after " + ls.getTimeToBest() + " ms");
+			printGap(ls.getLowerBound(), bestIndividual);
+			System.out.println("Elapsed Time: "+ls.getElapsedTime()/1000 +" sec");
+			if(output_file != null)
+				bestIndividual.writeSchedule(Path.of(output_file), "instance " + instance.getName(), "penalty " + bestIndividual.getTotalPenalty());
+			if(export_file != null)
+				new ScheduleExporter(ls.getFitness()).export(Path.of(export_file), bestIndividual);
+
+			System.out.println("\nSchedule after termination:");
+			System.out.println("Total penalty: " + bestIndividual.getTotalPenalty());
+			System.out.println("The chromosome is: ");
+			bestIndividual.printIndividual();
+			return;
 		}
-	}
-	
-	/**
-	 * Two-point Crossover Operator implementation.
-	 * Performs a two-point crossover operation between two parent individuals to produce an offspring.
-	 * The crossover points are selected randomly within specified ranges.
-	 * If the crossover probability is not met, the fittest parent is returned.
-	 *
-	 * @param id1 The first parent individual.
-	 * @param id2 The second parent individual.
-	 * @param p_cross The probability of performing the crossover.
-	 * @return The offspring individual resulting from the crossover, or the fittest parent if crossover is not performed.
-	 */
-	@SuppressWarnings("unused")
-	private static Individual cross2p(Individual id1, Individual id2, double p_cross) {
+		if(time_budget > 0)
+			System.out.println("Genetic Algorithm execution with Population = "+popSize+ " and time budget = "+time_budget+" sec");
+		else
+			System.out.println("Genetic Algorithm execution with Population = "+popSize+ " and iterations = "+iter_max);
+		System.out.println("Crossover rate (Probability): "+p_cross);
+		System.out.println("Mutation rate (Probability): "+p_mut);
+		if(adapt > 0)
+			System.out.println("Adaptive rates enabled");
+		if(target_penalty > 0)
+			System.out.println("Target penalty: "+target_penalty);
+		if(stagnation_limit > 0)
+			System.out.println("Partial restart after "+stagnation_limit+" generations without improvement");
 
-		Individual offspring = new Individual();
+		if(steady_threads > 0) {
+			// same number of evaluations as iter_max generations of the generational engine
+			SteadyStateGA ss = new SteadyStateGA(instance, popSize, (long) popSize * iter_max, p_cross, p_mut, steady_threads);
+			ss.setTimeBudget((long) (time_budget * 1000));
+			ss.setTargetPenalty(target_penalty);
+			ss.setConstraintModel(model);
+			System.out.println("Asynchronous steady-state engine with " + steady_threads + " workers");
 
-		if(Math.random() <= p_cross) {	// create offspring	
-					
-					
-			int[][] parent1 = id1.getChromosome();
-			int[][] parent2 = id2.getChromosome();
-			
-			int[][] offspring_genes = offspring.getChromosome();
-			
-			Random rand = new Random();
-			//Select a random cross point between 0-6
-			int p1 = rand.nextInt(7);
-			
-			//Select a random cross point between 7-13
-			int p2 = rand.nextInt(7);
-			p2 = p2 +7;
-			
-			double probability;
-				
-			for(int j = 0; j < 14; j++)	{
-				probability = Math.random();
-				for(int i = 0; i < 30; i++){
-					if(j <= p1) {
-						if(probability <= p_cross)
-							offspring_genes[i][j] = parent1[i][j];
-						else
-							offspring_genes[i][j] = parent2[i][j];
+			Individual bestIndividual = ss.run();
+			System.out.println("Evaluations: " + ss.getEvaluations() + " (" + Math.round(ss.getThroughput()) + " per second per worker)");
+			Fitness fit = new Fitness(instance);
+			fit.setModel(model);
+			printGap(fit.getLowerBound(), bestIndividual);
+			System.out.println("Elapsed Time: "+ss.getElapsedTime()/1000 +" sec");
+			if(output_file != null)
+				bestIndividual.writeSchedule(Path.of(output_file), "instance " + instance.getName(), "penalty " + bestIndividual.getTotalPenalty());
+			if(export_file != null)
+				new ScheduleExporter(fit).export(Path.of(export_file), bestIndividual);
 
-					} else if(j > p1 && j < p2) {
-						if(probability<= p_cross)
-							offspring_genes[i][j] = parent1[i][j];
-						else
-							offspring_genes[i][j] = parent2[i][j];
+			System.out.println("\nSchedule after termination:");
+			System.out.println("Total penalty: " + bestIndividual.getTotalPenalty());
+			System.out.println("The chromosome is: ");
+			bestIndividual.printIndividual();
+			return;
+		}
 
-					} else if(j >= p2) {
-						if(probability <= p_cross)
-							offspring_genes[i][j] = parent1[i][j];
-						else
-							offspring_genes[i][j] = parent2[i][j];					
-					}					
+		// print the average fitness of chromosomes in each generation
+		ga.setListener(new GeneticAlgorithm.GenerationListener() {
+			@Override
+			public void onGeneration(int generation, Population pop, Individual best) {
+				double sum_fit = 0;
+				for(int i = 0; i < pop.getPopulationSize(); i++) {
+					sum_fit += pop.getIndividual(i).getTotalPenalty();
 				}
-			}			
-			
-			offspring.setChromosome(offspring_genes);
-			return offspring;
-		}
-		else {	// return fittest parent
-			if(id1.getTotalPenalty() > id2.getTotalPenalty())
-				return id1;
-			else
-				return id2;
-		}
-	}
+				double avg = (double) Math.round((sum_fit/pop.getPopulationSize())*100d)/100d;
+				Diversity diversity = ga.getDiversity();
+				LowerBound lower_bound = ga.getLowerBound();
+				System.out.printf("The average fitness of generation %d is: %s (gene entropy %.3f, Hamming distance %.3f%s)%n",
+									generation, avg, diversity.entropy(), diversity.hamming(),
+									lower_bound == null ? "" : String.format(", gap %.1f%%", 100 * lower_bound.gap(best.getTotalPenalty())));
+			}
 
-	/**
-	 * Randomly mutates the genes of the given offspring with a specified probability.
-	 *
-	 * @param offspring The individual whose genes are to be mutated.
-	 * @param p_mut The probability of mutation for each gene.
-	 * @return The mutated offspring.
-	 */
-	private static Individual rand_mut(Individual offspring, double p_mut) {
+			@Override
+			public void onRestart(int generation) {
+				System.out.println("Partial restart after generation " + generation);
+			}
+		});
+
+		Individual bestIndividual = ga.run();
+		printGap(ga.getLowerBound(), bestIndividual);
 
-		for(int genes = 0; genes < 14; genes++) {
-			
-			// mutation with probability p_mut
-			if(Math.random() <= p_mut) 	
-				// mutate column to maintain diversity
-				offspring.createGene(offspring, genes);
+		if(output_file != null)
+			bestIndividual.writeSchedule(Path.of(output_file), "instance " + instance.getName(), "penalty " + bestIndividual.getTotalPenalty());
+		if(output_population != null)
+			ga.getPopulation().writePopulation(Path.of(output_population));
+		if(export_file != null) {
+			// the best schedule of the run first, it may have left the final population
+			Individual[] elite = ga.getPopulation().getElite(export_size);
+			if(elite[0].getTotalPenalty() > bestIndividual.getTotalPenalty()) {
+				System.arraycopy(elite, 0, elite, 1, elite.length - 1);
+				elite[0] = bestIndividual;
+			}
+			new ScheduleExporter(ga.getFitness()).export(Path.of(export_file), elite);
 		}
-		return offspring;
-	}
-	
-	/**
-	 * Applies a shift mutation to the given offspring with a specified probability.
-	 * 
-	 * This kind of mutation just shifts the genes in a cyclic manner byone position and after some generations, 
-	 * there is a chance a chromosome will form its initial genes, reducing the diversity of the population.
-	 * 
-	 * This method is not used in the current implementation and is provided for reference and experimentation.
-	 * 
-	 * @param offspring The individual to be mutated.
-	 * @param p_mut The probability of mutation for each gene.
-	 * @return The mutated offspring.
-	 */
-	@SuppressWarnings("unused")
-	private static Individual shift_mut(Individual offspring, double p_mut) {
 
-		for(int genes = 0; genes < 14; genes++) {
-			
-			// mutation with probability p_mut
-			if(Math.random() <= p_mut) 	
-				// mutate column to maintain diversity
-				offspring.ShiftGene(offspring, genes);
+		if(bestIndividual.getTotalPenalty() <= target_penalty || ga.isOptimal()) {
+			System.out.println("\nSolution found in generation " + ga.getGenerations());
+			System.out.println("\nThe solution has fitness: " +bestIndividual.getTotalPenalty());
+			System.out.println("\nThe chromosome is: ");
+			bestIndividual.printIndividual();
+			System.out.println("Elapsed Time: "+ga.getElapsedTime()/1000 +" sec");
+			return;
 		}
-		return offspring;
+
+		System.out.println("Elapsed Time: "+ga.getElapsedTime()/1000 +" sec");
+
+		// Print the best schedule after algorithm termination
+		System.out.println("\nSchedule after termination:");
+		System.out.println("Total penalty: " + bestIndividual.getTotalPenalty());
+		System.out.println("The chromosome is: ");
+		bestIndividual.printIndividual();
 	}
 
+	// Print the lower bound of the penalty and how far the best schedule may be from optimal
+	private static void printGap(LowerBound lower_bound, Individual best) {
+
+		if(lower_bound == null)	// no bound for the soft constraints of a rule file
+			return;
+		if(best.getTotalPenalty() <= lower_bound.getBound())
+			System.out.println("Lower bound: " + lower_bound + ", reached: the schedule is optimal");
+		else
+			System.out.printf("Lower bound: %s, optimality gap %.1f%%%n", lower_bound, 100 * lower_bound.gap(best.getTotalPenalty()));
+	}
 }
\ No newline at end of file
@@ -0,0 +1,742 @@
+/***********************************************************************************************************
+
+	GeneticAlgorithm class is the evolution engine of the personnel scheduling problem.
+
+	It holds the parameters of a run (population size, number of generations, crossover and mutation
+	rates), evolves the population with rank (or tournament) selection, uniform (or two-point) crossover
+	and random (or cyclic shift, or violation-guided) mutation, and keeps the best schedule found so far,
+	so that a run can be stopped at any time and still return a schedule.
+
+	A run stops after the maximum number of generations, or at a wall-clock deadline when a time budget
+	is set, or as soon as the target penalty or the lower bound of the penalty (see LowerBound) is reached. When the best penalty does not improve for a
+	number of generations, or the gene diversity of the population collapses, the population is partially
+	restarted, keeping its elite. A run may also be warm-started from a previous schedule (see WarmStart).
+
+	Date:	 2026
+***********************************************************************************************************/
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+public class GeneticAlgorithm {
+
+	/**
+	 * Receives the progress of a run after every generation.
+	 */
+	public interface GenerationListener {
+
+		void onGeneration(int generation, Population pop, Individual best);
+
+		default void onRestart(int generation) {
+		}
+	}
+
+	/**
+	 * How the fitness of a generation is calculated: chosen from the roster and population sizes (AUTO),
+	 * one individual after the other (SERIAL), individuals in parallel (INTER), or each individual with
+	 * its employees split across parallel tasks (INTRA). The parallel modes run on the common fork-join
+	 * pool, so SERIAL is the default and the others are chosen by a run that has the machine to itself.
+	 */
+	public enum Evaluation { AUTO, SERIAL, INTER, INTRA }
+
+	/**
+	 * Mutation operator: random column (RANDOM), cyclic shift of a column (SHIFT), or swaps guided by
+	 * the violations of the best parent (GUIDED).
+	 */
+	public enum Mutation { RANDOM, SHIFT, GUIDED }
+
+	/**
+	 * Crossover operator: days taken from either parent at random (UNIFORM), or three blocks of days
+	 * taken alternately from the parents (TWO_POINT).
+	 */
+	public enum Crossover { UNIFORM, TWO_POINT }
+
+	/**
+	 * Parent selection: probability proportional to the rank in the population (RANK), or the best of a
+	 * few random individuals (TOURNAMENT).
+	 */
+	public enum Selection { RANK, TOURNAMENT }
+
+	// offspring bred between two checks of the deadline inside a generation
+	private static final int CHECK_INTERVAL = 256;
+	// genes of a generation under which evaluation is not worth parallelising
+	private static final long PARALLEL_MIN_CELLS = 100000;
+	// employees from which a single individual is worth evaluating in parallel
+	private static final int INTRA_MIN_EMPLOYEES = 4096;
+	// individuals per core under which intra-individual parallelism is preferred
+	private static final int INTRA_MAX_POPULATION = 4;
+	// individuals compared in a tournament selection
+	private static final int TOURNAMENT = 3;
+
+	private Instance instance;
+	private int popSize;
+	private int iter_max;
+	private double p_cross;
+	private double p_mut;
+	private AdaptiveRates adaptive;	// null for fixed rates
+	private WarmStart warm_start;	// null to start from a random population
+	private Evaluation evaluation;
+	private Mutation mutation;
+	private Crossover crossover;
+	private Selection selection;
+	private Individual seed;		// included in the initial population, null for none
+	private Random rand;			// random number generator of the operators
+
+	private long time_budget;		// wall-clock budget in milliseconds, 0 for none
+	private int target_penalty;		// stop as soon as the best penalty reaches this value
+	private int stagnation_limit;	// generations without improvement before a restart, 0 for none
+	private double diversity_floor;	// gene entropy (see Diversity) under which the population is restarted
+	private double elite_rate;		// fraction of the population kept on restart
+	private GenerationListener listener;
+	private volatile boolean cancelled;	// set by another thread to stop the run
+
+	private Fitness fit;
+	private Population pop;
+	private Diversity diversity;	// gene diversity of the population, updated as individuals enter and leave
+	private Individual best;	// copy of the best individual found so far
+	private LowerBound lower_bound;	// no schedule has a lower penalty, null if unknown
+	private int generations;
+	private long evaluations;	// individuals evaluated during the run
+	private int stagnation;
+	private int restarts;
+	private long startTime;
+	private long deadline;		// System.nanoTime() at which the run must stop
+
+	public GeneticAlgorithm(int popSize, int iter_max, double p_cross, double p_mut) {
+		this(Instance.WHPP, popSize, iter_max, p_cross, p_mut);
+	}
+
+	public GeneticAlgorithm(Instance instance, int popSize, int iter_max, double p_cross, double p_mut) {
+
+		this.instance = instance;
+		this.popSize = popSize;
+		this.iter_max = iter_max;
+		this.p_cross = p_cross;
+		this.p_mut = p_mut;
+		this.time_budget = 0;
+		this.target_penalty = 0;
+		this.stagnation_limit = 0;
+		this.diversity_floor = 0;
+		this.elite_rate = 0.1;
+		this.evaluation = Evaluation.SERIAL;
+		this.mutation = Mutation.RANDOM;
+		this.crossover = Crossover.UNIFORM;
+		this.selection = Selection.RANK;
+		this.rand = new Random();
+		this.fit = new Fitness(instance);
+	}
+
+	/**
+	 * Runs the genetic algorithm until one of its stopping criteria is met.
+	 *
+	 * @return the best individual found during the run
+	 */
+	public Individual run() {
+
+		this.init();
+		while(!this.isDone())
+			this.step();
+		return best;
+	}
+
+	/**
+	 * Generates and evaluates the initial feasible population and starts the clock of the run.
+	 */
+	public void init() {
+
+		startTime = System.nanoTime();
+		deadline = startTime + time_budget * 1000000L;
+		generations = 0;
+		evaluations = 0;
+		stagnation = 0;
+		restarts = 0;
+		best = null;
+		lower_bound = fit.getLowerBound();
+
+		// generate initial feasible population
+		// hard constraints satisfied for every chromosome
+		pop = new Population(popSize, instance);
+		if(warm_start != null)
+			warm_start.seed(pop);	// seeded from the previous schedule
+		else
+			pop.InitialisePop(rand);
+		if(seed != null)
+			pop.setIndividual(0, seed.copy());
+
+		// calculate the fitness of each individual of initial population
+		this.evaluate(pop, popSize);
+
+		diversity = new Diversity(instance);
+		for(int i = 0; i < popSize; i++)
+			diversity.add(pop.getIndividual(i));
+
+		// Sort the population in descending order of penalty cost
+		pop.FitnessSort();
+		this.updateBest();
+	}
+
+	/**
+	 * Evolves the population by one generation:
+	 * 1. Rank Selection
+	 * 2. Crossover
+	 * 3. Mutation
+	 * 4. Fitness Calculation
+	 *
+	 * If the deadline passes or the run is cancelled while breeding, the unfinished generation is discarded.
+	 */
+	public void step() {
+
+		Population newPopulation = new Population(popSize, instance);
+		int[] parent_penalty = new int[popSize];	// penalty of the best parent, to count successful offspring
+		for (int i = 0; i < popSize; i++) {
+			// reading the clock is cheap, but not for every offspring
+			if(i % CHECK_INTERVAL == CHECK_INTERVAL - 1
+					&& (cancelled || (time_budget > 0 && System.nanoTime() >= deadline)))
+				return;
+
+			Individual indiv1 = this.select(); // select parent 1
+			Individual indiv2 = this.select(); // select parent 2
+			parent_penalty[i] = Math.min(indiv1.getTotalPenalty(), indiv2.getTotalPenalty());
+			double pc = p_cross, pm = p_mut;
+			if(adaptive != null) {
+				pc = adaptive.crossRate(indiv1, indiv2);
+				pm = adaptive.mutRate(indiv1, indiv2);
+			}
+			Individual newIndiv; // crossover and create offspring
+			if(crossover == Crossover.TWO_POINT)
+				newIndiv = cross2p(indiv1, indiv2, pc, rand);
+			else
+				newIndiv = uni_cross(indiv1, indiv2, pc, rand);
+			Individual mutated; // randomly mutate offspring
+			if(warm_start != null)
+				mutated = warm_start.mutate(newIndiv, pm); // only where the schedule changed
+			else if(mutation == Mutation.GUIDED)	// where the best parent violates the constraints
+				mutated = guided_mut(newIndiv, indiv1.getTotalPenalty() < indiv2.getTotalPenalty() ? indiv1 : indiv2, pm, rand);
+			else if(mutation == Mutation.SHIFT)
+				mutated = shift_mut(newIndiv, pm, rand);
+			else
+				mutated = rand_mut(newIndiv, pm, rand);
+			newPopulation.setIndividual(i, mutated); // add to new population
+		}
+
+		this.evaluate(newPopulation, popSize); // calculate fitness of each chromosome with respect to penalty cost
+
+		int successes = 0;	// offspring better than their best parent
+		for (int i = 0; i < popSize; i++) {
+			if(newPopulation.getIndividual(i).getTotalPenalty() < parent_penalty[i])
+				successes++;
+		}
+
+		newPopulation.FitnessSort();	// sort new population in descending order of penalty cost
+
+		for(int i = 0; i < popSize; i++) {	// the whole population is replaced
+			diversity.remove(pop.getIndividual(i));
+			diversity.add(newPopulation.getIndividual(i));
+		}
+
+		if(adaptive != null)	// adapt rates for the next generation
+			adaptive.update(newPopulation, successes, diversity.entropy());
+
+		pop = newPopulation;
+		generations++;
+
+		if(this.updateBest())
+			stagnation = 0;
+		else
+			stagnation++;
+
+		if(listener != null)
+			listener.onGeneration(generations, pop, best);
+
+		// stagnation or diversity collapse - restart keeping the elite
+		if(!this.isDone() && ((stagnation_limit > 0 && stagnation >= stagnation_limit)
+				|| diversity.entropy() < diversity_floor))
+			this.restart();
+	}
+
+	/**
+	 * Checks the stopping criteria: run cancelled, target penalty or lower bound reached, deadline passed
+	 * when a time budget is set, maximum number of generations otherwise.
+	 *
+	 * @return true if the run must stop
+	 */
+	public boolean isDone() {
+
+		if(cancelled || best.getTotalPenalty() <= target_penalty || this.isOptimal())
+			return true;
+		if(time_budget > 0)
+			return System.nanoTime() >= deadline;
+		return generations >= iter_max;
+	}
+
+	/**
+	 * Partially restarts the population: the elite is kept and the rest of the population is replaced
+	 * by new random feasible individuals.
+	 */
+	private void restart() {
+
+		int elite = Math.max(1, (int) Math.ceil(elite_rate * popSize));
+		Population fresh = new Population(popSize - elite, instance);
+		if(warm_start != null)
+			warm_start.seed(fresh);
+		else
+			fresh.InitialisePop(rand);
+		this.evaluate(fresh, popSize - elite);
+		for(int i = 0; i < popSize - elite; i++) {
+			diversity.remove(pop.getIndividual(i));
+			pop.setIndividual(i, fresh.getIndividual(i));	// the worst individuals are at the start
+			diversity.add(pop.getIndividual(i));
+		}
+		pop.FitnessSort();
+
+		stagnation = 0;
+		restarts++;
+		if(listener != null)
+			listener.onRestart(generations);
+	}
+
+	/**
+	 * Calculates the fitness of the first n individuals of a population, in parallel when it pays off:
+	 * across individuals (inter-individual) for populations large enough to keep all the cores busy,
+	 * or across the employees of each individual (intra-individual) for very large rosters evaluated
+	 * in small populations.
+	 */
+	private void evaluate(Population p, int n) {
+
+		evaluations += n;
+		Evaluation mode = evaluation;
+		if(mode == Evaluation.AUTO) {
+			int cores = ForkJoinPool.getCommonPoolParallelism();
+			long cells = (long) instance.getEmployees() * instance.getDays();
+			if(cores < 2 || n * cells < PARALLEL_MIN_CELLS)
+				mode = Evaluation.SERIAL;
+			else if(instance.getEmployees() >= INTRA_MIN_EMPLOYEES && n < INTRA_MAX_POPULATION * cores)
+				mode = Evaluation.INTRA;
+			else
+				mode = Evaluation.INTER;
+		}
+
+		switch(mode) {
+			case INTER:
+				IntStream.range(0, n).parallel().forEach(i -> fit.calc_Fitness(p.getIndividual(i)));
+				break;
+			case INTRA:
+				for(int i = 0; i < n; i++)
+					fit.calc_Fitness_parallel(p.getIndividual(i));
+				break;
+			default:
+				for(int i = 0; i < n; i++)
+					fit.calc_Fitness(p.getIndividual(i));
+		}
+	}
+
+	// Keep a copy of the best individual of the population if it improves the best so far
+	private boolean updateBest() {
+
+		Individual candidate = pop.getIndividual(popSize-1);
+		if(best != null && candidate.getTotalPenalty() >= best.getTotalPenalty())
+			return false;
+		best = candidate.copy();
+		return true;
+	}
+
+	// Select a parent with the selection scheme of the run
+	private Individual select() {
+		if(selection == Selection.TOURNAMENT)
+			return TournamentSelection(popSize, pop, rand);
+		return RankSelection(popSize, pop, rand);
+	}
+
+	/**
+	 * Selects an individual from the population using rank-based selection.
+	 * 
+	 * In rank-based selection, individuals are assigned ranks based on their fitness.
+	 * The probability of selecting an individual is proportional to its rank.
+	 * 
+	 * Rank-based selection is chosen because it is less biased than roulette wheel selection.
+	 * Also, it is less sensitive to scaling of fitness values. 
+	 * 
+	 * @param populationSize the size of the population
+	 * @param pop the population from which to select an individual
+	 * @param rand the random number generator of the run
+	 * @return the selected individual
+	 */
+	private static Individual RankSelection(int populationSize, Population pop, Random rand) {
+		
+		int[] ranks = new int[populationSize];
+		int sum = 0;
+		for(int i = 0; i < populationSize; i++) {
+			ranks[i] = i+1; // Assign ranks to chromosomes
+			sum += ranks[i]; // Calculate sum of all chromosome ranks in population
+		}
+		
+		// Generate random number from interval (0,sum) - r.
+		int r = rand.nextInt((int)(sum+1));
+		
+		// Go through the population and sum ranks until you reach r.
+		// When the sum s is greater then r, stop and return the chromosome where you are.
+		int s = 0;
+		for(int i = 0; i < populationSize; i++) {
+			s = s + ranks[i];
+			if(s > r)
+				return pop.getIndividual(i);
+		}
+
+		return pop.getIndividual(rand.nextInt(populationSize-1));
+	}
+
+	/**
+	 * Selects an individual from the population using tournament selection: the individual with the
+	 * lowest penalty among a few picked at random. The selection pressure depends on the size of the
+	 * tournament only, and not on the order of the population.
+	 *
+	 * @param populationSize the size of the population
+	 * @param pop the population from which to select an individual
+	 * @param rand the random number generator of the run
+	 * @return the selected individual
+	 */
+	private static Individual TournamentSelection(int populationSize, Population pop, Random rand) {
+
+		Individual winner = pop.getIndividual(rand.nextInt(populationSize));
+		for(int k = 1; k < TOURNAMENT; k++) {
+			Individual candidate = pop.getIndividual(rand.nextInt(populationSize));
+			if(candidate.getTotalPenalty() < winner.getTotalPenalty())
+				winner = candidate;
+		}
+		return winner;
+	}
+	
+	/**
+	 * Uniform Crossover Operator implementation.
+	 * Performs crossover operation between two parent individuals to produce an offspring.
+	 * 
+	 * @param id1 The first parent individual.
+	 * @param id2 The second parent individual.
+	 * @param p_cross The probability of performing crossover.
+	 * @param rand The random number generator of the run.
+	 * @return The offspring individual resulting from the crossover operation, or the fittest parent if crossover is not performed.
+	 */
+	private static Individual uni_cross(Individual id1, Individual id2, double p_cross, Random rand) {
+
+		Individual offspring = new Individual(id1.getInstance());
+
+		if(rand.nextDouble() <= p_cross) {	// create offspring
+			
+			int days = offspring.getInstance().getDays();
+			
+			double probability;
+			// crossover alternately: the days are shared with the parents, not copied
+			for(int j = 0; j < days; j++) {
+				probability = rand.nextDouble();
+				// choose the day from one of the parents with probability 50%
+				if(probability <= 0.5) 
+					offspring.shareDay(j, id1);
+				else 
+					offspring.shareDay(j, id2);
+			}
+			
+			return offspring;
+		} else {	// return a copy of the fittest parent, so that its mutation leaves the parent intact
+			if(id1.getTotalPenalty() < id2.getTotalPenalty())
+				return id1.copy();
+			else
+				return id2.copy();
+		}
+	}
+	
+	/**
+	 * Two-point Crossover Operator implementation.
+	 * Performs a two-point crossover operation between two parent individuals to produce an offspring.
+	 * One cross point is selected randomly in the first half of the days and one in the second half;
+	 * the days up to the first point and from the second point are taken from one parent, the days
+	 * in between from the other.
+	 * If the crossover probability is not met, the fittest parent is returned.
+	 *
+	 * @param id1 The first parent individual.
+	 * @param id2 The second parent individual.
+	 * @param p_cross The probability of performing the crossover.
+	 * @param rand The random number generator of the run.
+	 * @return The offspring individual resulting from the crossover, or the fittest parent if crossover is not performed.
+	 */
+	private static Individual cross2p(Individual id1, Individual id2, double p_cross, Random rand) {
+
+		Individual offspring = new Individual(id1.getInstance());
+
+		if(rand.nextDouble() <= p_cross) {	// create offspring
+			
+			int days = offspring.getInstance().getDays();
+			
+			//Select a random cross point in the first half of the days (0-6 for 14 days)
+			int p1 = rand.nextInt(Math.max(1, days/2));
+			
+			//Select a random cross point in the second half of the days (7-13 for 14 days)
+			int p2 = rand.nextInt(days - days/2);
+			p2 = p2 + days/2;
+			
+			// the outer blocks come from a random parent, the middle block from the other one
+			boolean first = rand.nextBoolean();
+			for(int j = 0; j < days; j++)
+				offspring.shareDay(j, (j > p1 && j < p2) == first ? id2 : id1);
+			
+			return offspring;
+		}
+		else {	// return a copy of the fittest parent, so that its mutation leaves the parent intact
+			if(id1.getTotalPenalty() < id2.getTotalPenalty())
+				return id1.copy();
+			else
+				return id2.copy();
+		}
+	}
+
+	/**
+	 * Randomly mutates the genes of the given offspring with a specified probability.
+	 *
+	 * @param offspring The individual whose genes are to be mutated.
+	 * @param p_mut The probability of mutation for each gene.
+	 * @param rand The random number generator of the run.
+	 * @return The mutated offspring.
+	 */
+	private static Individual rand_mut(Individual offspring, double p_mut, Random rand) {
+
+		for(int genes = 0; genes < offspring.getInstance().getDays(); genes++) {
+			
+			// mutation with probability p_mut
+			if(rand.nextDouble() <= p_mut) 	
+				// mutate column to maintain diversity
+				offspring.createGene(offspring, genes, rand);
+		}
+		return offspring;
+	}
+	
+	/**
+	 * Applies a shift mutation to the given offspring with a specified probability.
+	 * 
+	 * This kind of mutation just shifts the genes in a cyclic manner byone position and after some generations, 
+	 * there is a chance a chromosome will form its initial genes, reducing the diversity of the population.
+	 * 
+	 * This method is not used by default and is provided for reference and experimentation.
+	 * 
+	 * @param offspring The individual to be mutated.
+	 * @param p_mut The probability of mutation for each gene.
+	 * @param rand The random number generator of the run.
+	 * @return The mutated offspring.
+	 */
+	private static Individual shift_mut(Individual offspring, double p_mut, Random rand) {
+
+		for(int genes = 0; genes < offspring.getInstance().getDays(); genes++) {
+			
+			// mutation with probability p_mut
+			if(rand.nextDouble() <= p_mut) 	
+				// mutate column to maintain diversity
+				offspring.ShiftGene(offspring, genes);
+		}
+		return offspring;
+	}
+
+	/**
+	 * Violation-guided mutation.
+	 * Instead of rewriting random day columns, swaps the shifts of two employees on the days and for the
+	 * employees with the highest penalties, as recorded by Fitness when the guide was evaluated.
+	 * A day is picked with probability proportional to its penalty, then an employee with probability
+	 * proportional to its penalty, and its shift is swapped with the shift of another random employee on
+	 * that day, so that the demand of the day is still met.
+	 *
+	 * The offspring is not evaluated yet, so the violations of its best parent guide the mutation.
+	 * Without recorded violations, the offspring is mutated randomly.
+	 *
+	 * @param offspring The individual whose genes are to be mutated.
+	 * @param guide The evaluated individual whose violations guide the mutation.
+	 * @param p_mut The probability of mutation for each gene.
+	 * @param rand The random number generator of the run.
+	 * @return The mutated offspring.
+	 */
+	private static Individual guided_mut(Individual offspring, Individual guide, double p_mut, Random rand) {
+
+		Fitness.Violations v = guide.getViolations();
+		if(v == null)
+			return rand_mut(offspring, p_mut, rand);
+
+		int days = offspring.getInstance().getDays();
+		int employees = offspring.getInstance().getEmployees();
+		for(int k = 0; k < days; k++) {
+			
+			// mutation with probability p_mut
+			if(rand.nextDouble() <= p_mut) {
+				int j = roulette(v.day, rand);
+				int i1 = roulette(v.employee, rand);
+				int[] day = offspring.getDay(j);
+				// swap with an employee that has another shift on the same day
+				for(int tries = 0; tries < employees; tries++) {
+					int i2 = rand.nextInt(employees);
+					if(day[i2] != day[i1]) {
+						day = offspring.writeDay(j);	// copied first if shared with a parent
+						int shift = day[i1];
+						day[i1] = day[i2];
+						day[i2] = shift;
+						break;
+					}
+				}
+			}
+		}
+		return offspring;
+	}
+
+	// Index picked with probability proportional to weight + 1, so that all indices may be picked
+	private static int roulette(int[] weights, Random rand) {
+
+		long sum = weights.length;
+		for(int w : weights)
+			sum += w;
+		long r = (long) (rand.nextDouble() * sum);
+		for(int k = 0; k < weights.length; k++) {
+			r -= weights[k] + 1;
+			if(r < 0)
+				return k;
+		}
+		return weights.length - 1;
+	}
+
+	/**
+	 * Requests the run to stop. Safe to call from any thread; the run returns its best individual
+	 * within one check interval of the current generation.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	public boolean isCancelled() {
+		return cancelled;
+	}
+
+	/*********************************************
+	* Setters and Getters
+	*********************************************/
+	public void setAdaptiveRates(AdaptiveRates adaptive) {
+		this.adaptive = adaptive;
+	}
+
+	// Start from a previous schedule; its deviation weight, if any, is added to the fitness
+	public void setWarmStart(WarmStart warm_start) {
+		this.warm_start = warm_start;
+		if(warm_start != null)
+			warm_start.setRandom(rand);
+		if(warm_start != null && warm_start.getDeviationWeight() > 0)
+			fit.setReference(warm_start.getPrevious().getGenes(), warm_start.getDeviationWeight());
+		else
+			fit.setReference(null, 0);
+	}
+
+	// SERIAL by default, for the runs that share the machine with other runs
+	public void setEvaluation(Evaluation evaluation) {
+		this.evaluation = evaluation;
+	}
+
+	// Guided mutation needs the violations of every individual to be recorded by the fitness
+	public void setMutation(Mutation mutation) {
+		this.mutation = mutation;
+		fit.setProfiling(mutation == Mutation.GUIDED);
+	}
+
+	public void setCrossover(Crossover crossover) {
+		this.crossover = crossover;
+	}
+
+	public void setSelection(Selection selection) {
+		this.selection = selection;
+	}
+
+	// Evaluate the soft constraints of a rule file instead of the WHPP soft constraints
+	public void setConstraintModel(ConstraintModel model) {
+		fit.setModel(model);
+	}
+
+	// Evaluate the schedules as a window following the days already scheduled (see RollingHorizon)
+	public void setHistory(Fitness.History history) {
+		fit.setHistory(history);
+	}
+
+	// Include a copy of an individual (e.g. the best schedule of another run) in the initial population
+	public void setSeed(Individual seed) {
+		this.seed = seed;
+	}
+
+	// Make the run reproducible: the same seed and parameters give the same schedule (without a time budget)
+	public void setRandomSeed(long random_seed) {
+		this.rand = new Random(random_seed);
+		if(warm_start != null)
+			warm_start.setRandom(rand);
+	}
+
+	public void setTimeBudget(long time_budget) {
+		this.time_budget = time_budget;
+	}
+
+	public void setTargetPenalty(int target_penalty) {
+		this.target_penalty = target_penalty;
+	}
+
+	public void setStagnationLimit(int stagnation_limit) {
+		this.stagnation_limit = stagnation_limit;
+	}
+
+	public void setDiversityFloor(double diversity_floor) {
+		this.diversity_floor = diversity_floor;
+	}
+
+	public void setEliteRate(double elite_rate) {
+		this.elite_rate = elite_rate;
+	}
+
+	public void setListener(GenerationListener listener) {
+		this.listener = listener;
+	}
+
+	public Instance getInstance() {
+		return instance;
+	}
+
+	public Population getPopulation() {
+		return pop;
+	}
+
+	// fitness of the run, with its soft constraints, history and reference schedule
+	public Fitness getFitness() {
+		return fit;
+	}
+
+	public Diversity getDiversity() {
+		return diversity;
+	}
+
+	public Individual getBest() {
+		return best;
+	}
+
+	// bound of the penalty computed when the run started, null if unknown (soft constraints of a rule file)
+	public LowerBound getLowerBound() {
+		return lower_bound;
+	}
+
+	// The best penalty reaches the lower bound: no schedule is better
+	public boolean isOptimal() {
+		return lower_bound != null && best.getTotalPenalty() <= lower_bound.getBound();
+	}
+
+	public int getGenerations() {
+		return generations;
+	}
+
+	public int getRestarts() {
+		return restarts;
+	}
+
+	public long getEvaluations() {
+		return evaluations;
+	}
+
+	// elapsed time of the run in milliseconds
+	public long getElapsedTime() {
+		return (System.nanoTime() - startTime) / 1000000L;
+	}
+}
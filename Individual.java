@@ -2,13 +2,19 @@
 
 	Individual class is the representation of a chromosome.
 	
-	Contains the genes, the hard constraints, total penalty cost, fitness score 
+	Contains the genes, the problem instance with the hard constraints, total penalty cost, fitness score 
 	and a boolean indicator of feasibility, as well as the respective set() and get() methods.
 
 	Also, there are two methods for implementing mutation operations, createGene() and ShiftGene(), where 
 	the former creates a random gene and the latter cyclically shifts a gene.
 
-	printIndividual() method prints the chromosome in a readable format.
+	The genes are stored by day: one array per day with the shift of every employee. Crossover and copy()
+	share the day arrays of the parents instead of copying every gene, so a day array may belong to
+	several individuals. A shared day array is never written: writeDay() copies it first (copy-on-write),
+	so an offspring can never change the genes of its parents.
+
+	printIndividual() method prints the chromosome in a readable format, writeSchedule() writes it to a file
+	and readSchedules() reads it back.
 
 	Class implements Comparable interface in order to sort the population in descending order of penalty
 	cost (fitness score) by overriding the compareTo() method.
@@ -21,6 +27,13 @@
 	Code updated by: D. Komninos, 2025
 ***********************************************************************************************************/
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 public class Individual implements Comparable<Individual> {
@@ -30,34 +43,38 @@ public class Individual implements Comparable<Individual> {
 	public static int AFTERNOON_SHIFT = 8;
 	public static int NIGHT_SHIFT = 10;
 	
-	private int [][] genes;
+	private int [][] genes;		// genes[j][i]: shift of employee i on day j
+	private boolean[] shared;	// day arrays that may be referenced by other individuals
 
-	/**
-	 * Hard constraints for the WHPP problem (number of shifts per day).
-	 * Every row represents a shift and every column a day.
-	 * For shifts, 0: off, 1: morning, 2: afternoon, 3: night
-	 */
-	private int [][] hard_constraints = { {5, 5, 10, 15, 10, 15, 15} , 
-										  {10, 10, 5, 5, 5, 5, 5} , 
-										  {10, 10, 10, 5, 10, 5, 5} , 
-										  {5, 5, 5, 5, 5, 5, 5} };
+	// problem instance, holds the hard constraints (number of shifts per day)
+	// for shifts, 0: off, 1: morning, 2: afternoon, 3: night
+	private Instance instance;
 
 	private int total_penalty;										 
 	private boolean feasible;
+	private Fitness.Violations violations;	// penalty per employee and per day, if recorded by Fitness
+	private int[] objectives;	// penalty of every group of soft constraints, in the multi-objective mode
 	
-	private char[] Days = {'M', 'T', 'W', 'T', 'F', 'S', 'S'};
+	private static final char[] Days = {'M', 'T', 'W', 'T', 'F', 'S', 'S'};
 
-    // Create a random individual
+    // Create a random individual of the WHPP problem
 	public Individual() {
+		this(Instance.WHPP);
+	}
+
+	// Create a random individual of a problem instance
+	public Individual(Instance instance) {
 		
-		 this.genes = new int[30][14];
+		 this.instance = instance;
+		 this.genes = new int[instance.getDays()][instance.getEmployees()];
+		 this.shared = new boolean[instance.getDays()];
 		 this.feasible = true;
 		 this.total_penalty = 0;
 	}
 	
 	/**
 	 * Generates a new individual by creating a chromosome matrix with random shifts.
-	 * The chromosome matrix is a 30x14 matrix where each element represents a shift.
+	 * The chromosome matrix is an employees x days matrix (30x14 for WHPP) where each element represents a shift.
 	 * The shifts are generated randomly but must satisfy certain hard constraints.
 	 * 
 	 * The method uses a random number generator to assign shifts to each element in the matrix.
@@ -70,30 +87,30 @@ public class Individual implements Comparable<Individual> {
 	 * Once the chromosome matrix is generated, it is set as the individual's chromosome.
 	 */
 	public void createIndividual() {
+		this.createIndividual(new Random());
+	}
+
+	// Same as createIndividual(), drawing the shifts from the given random number generator
+	public void createIndividual(Random rand) {
 		
-		Random rand = new Random();
-		int [][] matrix = new int[30][14]; // chromosome matrix (30 employees, 14 days)
+		int employees = instance.getEmployees();
+		int days = instance.getDays();
 		int num;
-		int j;
 		
-		for (int columns = 0; columns < 14; columns++) {
+		for (int columns = 0; columns < days; columns++) {
 			int [] count = new int[4]; // count the shifts assigned
+			int [] day = new int[employees];
 			
-		    for (int rows = 0; rows < 30; rows++) {
+		    for (int rows = 0; rows < employees; rows++) {
 		        do { 
 		        	num = rand.nextInt(4);
 			        count[num]++;
-					// fix j for correspondence with hard constraints matrix columns
-			        if(columns < 7) 
-			        	j = columns;
-			        else
-			        	j = columns-7;
-		        } while(count[num] > hard_constraints[num][j]);
+		        } while(count[num] > instance.getDemand(num, columns));
 			
-		        matrix[rows][columns] = num;
-		    }           
-		}	
-		this.setChromosome(matrix);
+		        day[rows] = num;
+		    }
+		    this.setDay(columns, day);
+		}
 	}
 
 	/**
@@ -104,31 +121,29 @@ public class Individual implements Comparable<Individual> {
 	 * @param mutation_point The column index in the chromosome where the mutation occurs.
 	 */
 	public void createGene(Individual offspring, int mutation_point) {
+		this.createGene(offspring, mutation_point, new Random());
+	}
 
-		Random rand = new Random();
-		int[][] mutatedGene = offspring.getChromosome();
+	// Same as createGene(), drawing the shifts from the given random number generator
+	public void createGene(Individual offspring, int mutation_point, Random rand) {
+
+		Instance inst = offspring.getInstance();
+		int[] mutatedGene = new int[inst.getEmployees()];	// the whole day is replaced, nothing to copy
 		int num;
-		int j;
 
 		int[] count = new int[4];	// count the shifts assigned
 
 		// for each employee, change the shift of the mutation_point column
 		// to create its mutated version, with respect to hard constraints
-		for(int rows = 0; rows < 30; rows++) {
+		for(int rows = 0; rows < mutatedGene.length; rows++) {
 			do { 
 		        num = rand.nextInt(4); // generate random shift
 			    count[num]++;
-				// fix j for correspondence with hard constraints matrix columns
-			    if(mutation_point < 7) 
-			        j = mutation_point;
-			    else 
-			        j = mutation_point-7;
-			    
-		    } while(count[num] > hard_constraints[num][j]);
+		    } while(count[num] > inst.getDemand(num, mutation_point));
 			
-		    mutatedGene[rows][mutation_point] = num;
+		    mutatedGene[rows] = num;
 		}
-		offspring.setChromosome(mutatedGene);
+		offspring.setDay(mutation_point, mutatedGene);
 	}
 	
 	/**
@@ -140,46 +155,142 @@ public class Individual implements Comparable<Individual> {
 	 */
 	public void ShiftGene(Individual offspring, int p) {
 
-		int[][] mutatedGene = offspring.getChromosome();
+		int[] shift = offspring.getDay(p);
+		int employees = shift.length;
 
-		int[] shift = new int[30];
-		
-		for(int i = 0; i < 30; i++)
-			shift[i] = mutatedGene[i][p];
+		int[] mutatedGene = new int[employees];	// the shifted day, the day itself may be shared
 		
-		mutatedGene[0][p]= shift[29]; // cyclic shift
+		mutatedGene[0] = shift[employees-1]; // cyclic shift
 		
 		// shift the rest of the genes
-		for(int i = 1; i < 30; i++)
-			mutatedGene[i][p] = shift[i-1];	
+		for(int i = 1; i < employees; i++)
+			mutatedGene[i] = shift[i-1];	
 				
-		offspring.setChromosome(mutatedGene);
+		offspring.setDay(p, mutatedGene);
 	}
 	
-	// Print the individual (a schedule of 30 employees for 14 days)
+	/**
+	 * Creates a copy of the individual. The days are shared with the copy, and copied by either of them
+	 * only when it writes them, so that later mutations of one of them do not affect the other.
+	 *
+	 * @return a new individual with the same genes, penalty and feasibility
+	 */
+	public Individual copy() {
+
+		Individual clone = new Individual(this.instance);
+		for(int j = 0; j < this.genes.length; j++)
+			clone.shareDay(j, this);
+		clone.setTotalPenalty(this.total_penalty);
+		clone.setFeasible(this.feasible);
+		clone.setViolations(this.violations);
+		clone.setObjectives(this.objectives);
+		return clone;
+	}
+
+	// Print the individual (a schedule of 30 employees for 14 days for WHPP)
 	public void printIndividual() {
 		
 		System.out.printf("\n         ");
-		for(int i = 0; i < 14; i++) {
-			if(i < 7)
-				System.out.printf("%-5c", this.Days[i]);
-			else
-				System.out.printf("%-5c", this.Days[i-7]);
-		}
+		for(int i = 0; i < instance.getDays(); i++)
+			System.out.printf("%-5c", Days[instance.getWeekday(i)]);
 		
 		System.out.println("\n");
 
-		for (int i = 0; i < 30; i++) {
+		for (int i = 0; i < instance.getEmployees(); i++) {
 			    System.out.printf("Emp%d     ", i+1);
 
-		    for (int j = 0; j < 14; j++)
-		    	System.out.printf("%-5d", this.genes[i][j]);
+		    for (int j = 0; j < instance.getDays(); j++)
+		    	System.out.printf("%-5d", this.genes[j][i]);
 				
 		    System.out.println();
 		}
 		System.out.println("\n");
 	}
 
+	/**
+	 * Writes the schedule to a text file, one line per employee with the shift of every day.
+	 * Every line of the header is written first as a comment starting with '#'.
+	 *
+	 * @param file the file to write
+	 * @param header the comment lines describing the schedule
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writeSchedule(Path file, String... header) throws IOException {
+
+		try(BufferedWriter out = Files.newBufferedWriter(file)) {
+			this.writeSchedule(out, header);
+		}
+	}
+
+	// Write the schedule with its header to an open writer
+	public void writeSchedule(Writer out, String... header) throws IOException {
+
+		for(String line : header)
+			out.write("# " + line + "\n");
+		for(int i = 0; i < instance.getEmployees(); i++) {
+			StringBuilder row = new StringBuilder();
+			for(int j = 0; j < this.genes.length; j++) {
+				if(j > 0)
+					row.append(' ');
+				row.append(this.genes[j][i]);
+			}
+			out.write(row.append('\n').toString());
+		}
+	}
+
+	/**
+	 * Reads the schedules of a file written by writeSchedule(), or by Population.writePopulation()
+	 * for more than one schedule. Schedules are separated by comment lines or blank lines.
+	 *
+	 * @param file the file to read
+	 * @param instance the problem instance of the schedules
+	 * @return the individuals of the file, not evaluated
+	 * @throws IOException if the file cannot be read
+	 */
+	public static List<Individual> readSchedules(Path file, Instance instance) throws IOException {
+
+		List<Individual> schedules = new ArrayList<>();
+		List<int[]> rows = new ArrayList<>();
+
+		for(String line : Files.readAllLines(file)) {
+			line = line.trim();
+			if(line.isEmpty() || line.startsWith("#")) {
+				if(!rows.isEmpty())
+					schedules.add(toIndividual(rows, instance, file));
+				rows.clear();
+				continue;
+			}
+			String[] tokens = line.split("\\s+");
+			int[] row = new int[tokens.length];
+			for(int j = 0; j < tokens.length; j++)
+				row[j] = Integer.parseInt(tokens[j]);
+			rows.add(row);
+		}
+		if(!rows.isEmpty())
+			schedules.add(toIndividual(rows, instance, file));
+		return schedules;
+	}
+
+	// Build an individual from the rows of a schedule read from a file
+	private static Individual toIndividual(List<int[]> rows, Instance instance, Path file) {
+
+		if(rows.size() != instance.getEmployees())
+			throw new IllegalArgumentException(file + ": schedule has " + rows.size() + " employees, expected " + instance.getEmployees());
+		Individual id = new Individual(instance);
+		int[][] genes = id.getGenes();	// the days of a new individual are its own
+		for(int i = 0; i < rows.size(); i++) {
+			int[] row = rows.get(i);
+			if(row.length != instance.getDays())
+				throw new IllegalArgumentException(file + ": schedule of employee " + (i+1) + " has " + row.length + " days, expected " + instance.getDays());
+			for(int j = 0; j < row.length; j++) {
+				if(row[j] < 0 || row[j] > 3)
+					throw new IllegalArgumentException(file + ": invalid shift " + row[j]);
+				genes[j][i] = row[j];
+			}
+		}
+		return id;
+	}
+
 	/*********************************************
 	* Setters and Getters
 	*********************************************/
@@ -191,12 +302,69 @@ public class Individual implements Comparable<Individual> {
 		this.feasible = feasible;
 	}
 
-	public int[][] getChromosome() {
+	/**
+	 * Returns the genes by day, genes[j][i] being the shift of employee i on day j. The days may be
+	 * shared with other individuals: they are read-only, use writeDay() to change a day.
+	 */
+	public int[][] getGenes() {
 		return genes;
 	}
 
-	public void setChromosome(int[][] chromosome) {
-		this.genes = chromosome;
+	// Read-only shifts of every employee on a day
+	public int[] getDay(int day) {
+		return genes[day];
+	}
+
+	/**
+	 * Returns the shifts of every employee on a day, to be written: a day shared with other individuals
+	 * is copied first, so that they keep their own shifts.
+	 */
+	public int[] writeDay(int day) {
+		if(shared[day]) {
+			genes[day] = genes[day].clone();
+			shared[day] = false;
+		}
+		return genes[day];
+	}
+
+	// Set the shifts of every employee on a day to an array owned by this individual only
+	public void setDay(int day, int[] shifts) {
+		genes[day] = shifts;
+		shared[day] = false;
+	}
+
+	// Share a day of another individual, copied by either individual before it is written
+	public void shareDay(int day, Individual from) {
+		genes[day] = from.genes[day];
+		shared[day] = true;
+		from.shared[day] = true;
+	}
+
+	/**
+	 * Returns a copy of the schedule by employee, schedule[i][j] being the shift of employee i on day j,
+	 * as it is printed and written to files.
+	 */
+	public int[][] getSchedule() {
+		int[][] schedule = new int[instance.getEmployees()][genes.length];
+		for(int j = 0; j < genes.length; j++) {
+			for(int i = 0; i < schedule.length; i++)
+				schedule[i][j] = genes[j][i];
+		}
+		return schedule;
+	}
+
+	// Set the genes from a schedule by employee, schedule[i][j] being the shift of employee i on day j
+	public void setSchedule(int[][] schedule) {
+		for(int j = 0; j < genes.length; j++) {
+			int[] day = new int[schedule.length];
+			for(int i = 0; i < schedule.length; i++)
+				day[i] = schedule[i][j];
+			this.setDay(j, day);
+		}
+	}
+
+	public Instance getInstance() {
+		return instance;
 	}
 	
 	public void setTotalPenalty (int total_penalty) {
@@ -206,6 +374,22 @@ public class Individual implements Comparable<Individual> {
 	public int getTotalPenalty() {
 		return this.total_penalty;
 	}
+
+	public Fitness.Violations getViolations() {
+		return violations;
+	}
+
+	public void setViolations(Fitness.Violations violations) {
+		this.violations = violations;
+	}
+
+	public int[] getObjectives() {
+		return objectives;
+	}
+
+	public void setObjectives(int[] objectives) {
+		this.objectives = objectives;
+	}
 	
 	@Override
 	public int compareTo(Individual compareIdividual) {
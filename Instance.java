@@ -0,0 +1,173 @@
+/***********************************************************************************************************
+
+	Instance class is a problem instance of the personnel scheduling problem.
+
+	Contains the number of employees, the number of days of the planning horizon, the weekday of the
+	first day and the demand of every shift on every day (the hard constraints). WHPP is the default
+	instance of 30 employees over 14 days.
+
+	Instances are immutable, so the same instance can be shared by any number of concurrent runs.
+
+	An instance is read from a text file with the WHPP-style demand table:
+
+		# comment
+		name      ward-a
+		employees 30
+		days      14
+		start     0					(weekday of the first day, 0: Monday - optional)
+		morning   10 10 5 5 5 5 5
+		afternoon 10 10 10 5 10 5 5
+		night     5 5 5 5 5 5 5
+
+	where each shift row gives either one demand per weekday, repeated over the horizon, or one demand per day.
+	Files of the NSPLib benchmark (.nsp) are read too, see InstanceLoader.
+
+	Date:	 2026
+***********************************************************************************************************/
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+public class Instance {
+
+	/**
+	 * Hard constraints for the WHPP problem (number of shifts per day).
+	 * Every row represents a shift and every column a day of the week.
+	 * For shifts, 1: morning, 2: afternoon, 3: night (0: off is what remains)
+	 */
+	public static final Instance WHPP = Instance.fromWeekly("whpp", 30, 14, 0,
+										new int[][] { {10, 10, 5, 5, 5, 5, 5} ,
+													  {10, 10, 10, 5, 10, 5, 5} ,
+													  {5, 5, 5, 5, 5, 5, 5} });
+
+	private final String name;
+	private final int employees;
+	private final int days;
+	private final int start_day;	// weekday of the first day, 0: Monday
+	private final int[][] demand;	// number of shifts per day, rows 0: off, 1: morning, 2: afternoon, 3: night
+
+	/**
+	 * Creates an instance from the demand of every working shift on every day.
+	 * The demand of day-off shifts is the number of employees left on each day.
+	 *
+	 * @param name the name of the instance
+	 * @param employees the number of employees
+	 * @param days the number of days of the planning horizon
+	 * @param start_day the weekday of the first day, 0 for Monday
+	 * @param shifts the demand of morning, afternoon and night shifts (3 rows, one column per day)
+	 */
+	public Instance(String name, int employees, int days, int start_day, int[][] shifts) {
+
+		if(employees < 1 || days < 1 || shifts.length != 3)
+			throw new IllegalArgumentException("Instance " + name + ": invalid dimensions");
+
+		this.name = name;
+		this.employees = employees;
+		this.days = days;
+		this.start_day = start_day % 7;
+		this.demand = new int[4][days];
+
+		for(int j = 0; j < days; j++) {
+			int working = 0;
+			for(int s = 0; s < 3; s++) {
+				if(shifts[s].length != days || shifts[s][j] < 0)
+					throw new IllegalArgumentException("Instance " + name + ": invalid demand of day " + (j+1));
+				this.demand[s+1][j] = shifts[s][j];
+				working += shifts[s][j];
+			}
+			if(working > employees)
+				throw new IllegalArgumentException("Instance " + name + ": demand of day " + (j+1) + " exceeds the employees");
+			this.demand[0][j] = employees - working;
+		}
+	}
+
+	/**
+	 * Creates an instance whose demand repeats every week.
+	 *
+	 * @param weekly the demand of morning, afternoon and night shifts (3 rows, one column per weekday starting at start_day)
+	 */
+	public static Instance fromWeekly(String name, int employees, int days, int start_day, int[][] weekly) {
+
+		int[][] shifts = new int[3][days];
+		for(int s = 0; s < 3; s++) {
+			if(weekly[s].length != 7)
+				throw new IllegalArgumentException("Instance " + name + ": weekly demand needs 7 days");
+			for(int j = 0; j < days; j++)
+				shifts[s][j] = weekly[s][j % 7];
+		}
+		return new Instance(name, employees, days, start_day, shifts);
+	}
+
+	/**
+	 * Reads an instance from a file with the WHPP-style demand table, or in the NSPLib format for a
+	 * .nsp file (see InstanceLoader).
+	 *
+	 * @param file the instance file
+	 * @return the instance
+	 * @throws IOException if the file cannot be read
+	 */
+	public static Instance read(Path file) throws IOException {
+		return InstanceLoader.load(file);
+	}
+
+	/**
+	 * Parses an instance from the text of the WHPP-style demand table.
+	 *
+	 * @param name the name of the instance, unless the text names it
+	 * @param text the instance description
+	 * @return the instance
+	 */
+	public static Instance parse(String name, String text) {
+		return InstanceLoader.parse(name, ByteBuffer.wrap(text.getBytes(StandardCharsets.UTF_8)), InstanceLoader.Format.WHPP);
+	}
+
+	/**
+	 * Returns the part of the planning horizon from a day on, as an instance of its own
+	 * with the same employees, the demand of those days and the weekday of its first day.
+	 *
+	 * @param from the first day of the window, from 0
+	 * @param days the number of days of the window
+	 * @return the instance of the window
+	 */
+	public Instance window(int from, int days) {
+
+		if(from < 0 || days < 1 || from + days > this.days)
+			throw new IllegalArgumentException("Instance " + name + ": invalid window of days " + (from+1) + "-" + (from+days));
+		int[][] shifts = new int[3][];
+		for(int s = 0; s < 3; s++)
+			shifts[s] = Arrays.copyOfRange(demand[s+1], from, from + days);
+		return new Instance(name + "[" + (from+1) + "-" + (from+days) + "]", employees, days, this.getWeekday(from), shifts);
+	}
+
+	// Number of employees needed for a shift on a day (0: off, 1: morning, 2: afternoon, 3: night)
+	public int getDemand(int shift, int day) {
+		return demand[shift][day];
+	}
+
+	// Weekday of a day of the horizon, 0: Monday ... 6: Sunday
+	public int getWeekday(int day) {
+		return (start_day + day) % 7;
+	}
+
+	/*********************************************
+	* Getters
+	*********************************************/
+	public String getName() {
+		return name;
+	}
+
+	public int getEmployees() {
+		return employees;
+	}
+
+	public int getDays() {
+		return days;
+	}
+
+	public int getStartDay() {
+		return start_day;
+	}
+}
@@ -0,0 +1,231 @@
+/***********************************************************************************************************
+
+	InstanceLoader reads instance files of a corpus of instances.
+
+	A file is mapped into memory and parsed in place: the tokens are read from the bytes of the mapping
+	and the numbers are converted from them directly, without decoding the file into a string or
+	splitting it into lines, so loading a large corpus costs little more than touching its pages.
+
+	Two formats are read, chosen by the extension of the file:
+
+	- the WHPP-style demand table (any extension but .nsp), see Instance.java.
+	- NSPLib (.nsp), the nurse scheduling benchmark of Vanhoucke and Maenhout: the numbers of nurses,
+	  days and shifts, then the coverage of every shift on every day, one day after the other, then the
+	  preferences of every nurse. The first three shifts are taken as the morning, afternoon and night
+	  shifts and a fourth (free) shift is ignored; the preferences are not used by the WHPP soft
+	  constraints and are skipped. The horizon starts on a Monday.
+
+	Date:	 2026
+***********************************************************************************************************/
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+public class InstanceLoader {
+
+	public enum Format { WHPP, NSP }
+
+	/**
+	 * Reads an instance file, in the format given by its extension.
+	 *
+	 * @param file the instance file
+	 * @return the instance, named after the file unless the file names it
+	 * @throws IOException if the file cannot be read
+	 */
+	public static Instance load(Path file) throws IOException {
+
+		String name = file.getFileName().toString();
+		int dot = name.lastIndexOf('.');
+		if(dot > 0)
+			name = name.substring(0, dot);
+
+		try(FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return parse(name, bytes, format(file));
+		}
+	}
+
+	// Format of an instance file from its extension
+	public static Format format(Path file) {
+		return file.getFileName().toString().endsWith(".nsp") ? Format.NSP : Format.WHPP;
+	}
+
+	// Tests if a file of a directory is an instance file (*.whpp or *.nsp)
+	public static boolean isInstance(Path file) {
+		String name = file.getFileName().toString();
+		return name.endsWith(".whpp") || name.endsWith(".nsp");
+	}
+
+	/**
+	 * Parses an instance from its bytes, from the position of the buffer to its limit.
+	 *
+	 * @param name the name of the instance, unless the text names it
+	 * @param bytes the instance description
+	 * @param format the format of the description
+	 * @return the instance
+	 */
+	public static Instance parse(String name, ByteBuffer bytes, Format format) {
+
+		Tokens tokens = new Tokens(name, bytes);
+		return format == Format.NSP ? parseNsp(name, tokens) : parseWhpp(name, tokens);
+	}
+
+	// The WHPP-style demand table: one entry per line, its key first
+	private static Instance parseWhpp(String name, Tokens tokens) {
+
+		int employees = 0;
+		int days = 0;
+		int start_day = 0;
+		int[][] rows = new int[3][];
+		String[] keys = {"morning", "afternoon", "night"};
+
+		while(tokens.hasMore()) {
+			String entry = tokens.word();
+			String key = entry.toLowerCase();
+			if(tokens.atLineEnd())
+				throw new IllegalArgumentException("Instance " + name + ": no value for " + entry);
+			switch(key) {
+				case "name": name = tokens.word(); break;
+				case "employees": employees = tokens.number(); break;
+				case "days": days = tokens.number(); break;
+				case "start": start_day = tokens.number(); break;
+				default:
+					int s = Arrays.asList(keys).indexOf(key);
+					if(s < 0)
+						throw new IllegalArgumentException("Instance " + name + ": unknown entry " + entry);
+					int[] values = new int[7];
+					int n = 0;
+					while(!tokens.atLineEnd()) {
+						if(n == values.length)
+							values = Arrays.copyOf(values, 2 * n);
+						values[n++] = tokens.number();
+					}
+					rows[s] = Arrays.copyOf(values, n);
+			}
+			tokens.nextLine();
+		}
+
+		int[][] shifts = new int[3][days];
+		for(int s = 0; s < 3; s++) {
+			if(rows[s] == null || (rows[s].length != 7 && rows[s].length != days))
+				throw new IllegalArgumentException("Instance " + name + ": " + keys[s] + " needs 7 or " + days + " values");
+			for(int j = 0; j < days; j++)
+				shifts[s][j] = rows[s][rows[s].length == 7 ? (j % 7) : j];
+		}
+		return new Instance(name, employees, days, start_day, shifts);
+	}
+
+	// NSPLib: nurses, days and shifts, then the coverage of every shift on every day
+	private static Instance parseNsp(String name, Tokens tokens) {
+
+		int employees = tokens.number();
+		int days = tokens.number();
+		int shift_types = tokens.number();
+		if(shift_types != 3 && shift_types != 4)
+			throw new IllegalArgumentException("Instance " + name + ": " + shift_types + " shifts, expected 3 working shifts and a free one");
+
+		int[][] shifts = new int[3][days];
+		for(int j = 0; j < days; j++) {
+			for(int s = 0; s < shift_types; s++) {
+				int coverage = tokens.number();
+				if(s < 3)
+					shifts[s][j] = coverage;
+			}
+		}
+		// the preferences of the nurses follow, unused
+		return new Instance(name, employees, days, 0, shifts);
+	}
+
+	/**
+	 * Tokens of a text in a byte buffer: words and numbers separated by blanks, lines, and comments from
+	 * '#' to the end of the line.
+	 */
+	private static class Tokens {
+
+		private final String name;	// of the instance, for the error messages
+		private final ByteBuffer bytes;
+		private int pos;
+		private final int end;
+
+		Tokens(String name, ByteBuffer bytes) {
+			this.name = name;
+			this.bytes = bytes;
+			this.pos = bytes.position();
+			this.end = bytes.limit();
+		}
+
+		// Skip the blanks and the comment up to the end of the line, and test if the line has no more tokens
+		boolean atLineEnd() {
+
+			while(pos < end) {
+				byte b = bytes.get(pos);
+				if(b == '#') {
+					while(pos < end && bytes.get(pos) != '\n')
+						pos++;
+				} else if(b == ' ' || b == '\t' || b == '\r')
+					pos++;
+				else
+					return b == '\n';
+			}
+			return true;
+		}
+
+		// Skip the rest of the line
+		void nextLine() {
+			while(pos < end && bytes.get(pos++) != '\n')
+				;
+		}
+
+		// Skip the blanks, comments and lines up to the next token, and test if there is one
+		boolean hasMore() {
+
+			while(this.atLineEnd()) {
+				if(pos >= end)
+					return false;
+				pos++;	// the end of the line
+			}
+			return true;
+		}
+
+		// The next token as a string
+		String word() {
+
+			if(!this.hasMore())
+				throw new IllegalArgumentException("Instance " + name + ": unexpected end of file");
+			int start = pos;
+			while(pos < end && !blank(bytes.get(pos)))
+				pos++;
+			byte[] word = new byte[pos - start];
+			bytes.get(start, word);
+			return new String(word, StandardCharsets.UTF_8);
+		}
+
+		// The next token as a non-negative number, read from the bytes
+		int number() {
+
+			if(!this.hasMore())
+				throw new IllegalArgumentException("Instance " + name + ": unexpected end of file");
+			int start = pos;
+			long value = 0;
+			while(pos < end && !blank(bytes.get(pos))) {
+				int digit = bytes.get(pos) - '0';
+				if(digit < 0 || digit > 9 || value > Integer.MAX_VALUE)
+					throw new IllegalArgumentException("Instance " + name + ": invalid number at byte " + start);
+				value = 10 * value + digit;
+				pos++;
+			}
+			if(value > Integer.MAX_VALUE)
+				throw new IllegalArgumentException("Instance " + name + ": invalid number at byte " + start);
+			return (int) value;
+		}
+
+		private static boolean blank(byte b) {
+			return b == ' ' || b == '\t' || b == '\r' || b == '\n' || b == '#';
+		}
+	}
+}
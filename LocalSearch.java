@@ -0,0 +1,475 @@
+/***********************************************************************************************************
+
+	LocalSearch improves a single schedule by moves instead of breeding a population: simulated
+	annealing, tabu search, or simulated annealing on parallel replicas (parallel tempering).
+
+	A move swaps the shifts of two employees on one day, so the number of every shift on every day, and
+	thus the demand of every shift, never changes: every schedule visited is feasible. Every soft
+	constraint is evaluated on each employee independently, so the penalty of every employee is kept and
+	a move is scored by evaluating again only the two employees it changes (Fitness.calc_Penalty on these
+	employees). A move costs the same whatever the number of employees, and the same Fitness, rule file
+	(ConstraintModel) or history applies as in the genetic algorithm.
+
+	ANNEALING accepts a worse move with probability exp(-delta/T), the temperature T cooling
+	geometrically from a temperature at which about half of the worse moves are accepted to a thousandth
+	of it, over the moves or the time budget of the run.
+
+	TABU samples a few moves at every iteration and makes the best of them, even if worse, except the
+	moves changing a shift of an employee changed in the last iterations, unless they lead to a new best.
+
+	TEMPERING runs several replicas of annealing at fixed temperatures, one sweep of moves each in
+	parallel, and then offers to exchange the schedules of replicas at neighbouring temperatures, so that
+	a schedule stuck in a local minimum at a low temperature can escape it at a higher one.
+
+	A warm start (see WarmStart) starts every trajectory from the previous schedule, or from random
+	schedules, repaired for the change, penalises the deviation from the previous schedule, and never
+	swaps the shift of an employee on a day they are unavailable, so they stay off.
+
+	Like the genetic algorithm, a run stops early when its best penalty reaches the lower bound of the
+	penalty (see LowerBound).
+
+	Date:	 2026
+***********************************************************************************************************/
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+public class LocalSearch {
+
+	public enum Method { ANNEALING, TABU, TEMPERING }
+
+	// moves between two checks of the stopping criteria, and of one replica between two exchanges
+	private static final int SWEEP = 1000;
+	// worse moves sampled to estimate the initial temperature
+	private static final int SAMPLE = 200;
+	// moves sampled at every iteration of the tabu search
+	private static final int TABU_SAMPLE = 64;
+	// iterations an employee and day stay tabu, at least
+	private static final int TABU_TENURE = 10;
+	// final temperature of the annealing, and lowest temperature of the replicas, relative to the initial one
+	private static final double COOLING = 0.001;
+
+	private Instance instance;
+	private Method method;
+	private long max_moves;
+	private long time_budget;		// wall-clock budget in milliseconds, 0 for none
+	private int target_penalty;
+	private int replicas;
+	private Random rand;
+	private Fitness fit;
+	private Individual seed;		// initial schedule, null for a random one
+	private WarmStart warm_start;	// previous schedule and unavailable employees, null for none
+
+	private Individual best;
+	private LowerBound lower_bound;	// no schedule has a lower penalty, null if unknown
+	private long moves;
+	private volatile boolean cancelled;
+	private long startTime;
+	private long elapsed;			// duration of the run in milliseconds
+	private long time_to_best;		// time the best schedule was found in milliseconds
+
+	/**
+	 * @param method the metaheuristic
+	 * @param max_moves the number of moves scored during the run, ignored with a time budget
+	 */
+	public LocalSearch(Instance instance, Method method, long max_moves) {
+
+		this.instance = instance;
+		this.method = method;
+		this.max_moves = max_moves;
+		this.time_budget = 0;
+		this.target_penalty = 0;
+		this.replicas = Math.max(4, Runtime.getRuntime().availableProcessors());
+		this.rand = new Random();
+		this.fit = new Fitness(instance);
+	}
+
+	/**
+	 * Runs the metaheuristic until one of the stopping criteria is met.
+	 *
+	 * @return the best schedule found during the run
+	 */
+	public Individual run() {
+
+		startTime = System.nanoTime();
+		moves = 0;
+		cancelled = false;
+		best = null;
+		lower_bound = fit.getLowerBound();
+		if(method == Method.TEMPERING)
+			this.temper();
+		else {
+			Trajectory trajectory = new Trajectory(this.start(), new Random(rand.nextLong()));
+			if(method == Method.ANNEALING)
+				this.anneal(trajectory);
+			else
+				this.tabu(trajectory);
+			this.offer(trajectory.bestSchedule());
+		}
+		elapsed = (System.nanoTime() - startTime) / 1000000L;
+		return best;
+	}
+
+	// Simulated annealing of one trajectory, cooling over the moves or the time budget
+	private void anneal(Trajectory t) {
+
+		double initial = t.initialTemperature();
+		while(!this.isDone(t)) {
+			double temperature = initial * Math.pow(COOLING, this.progress());
+			for(int k = 0; k < SWEEP; k++)
+				t.metropolis(temperature);
+			moves += SWEEP;
+		}
+	}
+
+	// Tabu search of one trajectory over sampled intra-day swaps
+	private void tabu(Trajectory t) {
+
+		int[][] genes = t.genes;
+		long[][] tabu_until = new long[instance.getEmployees()][instance.getDays()];
+		long iteration = 0;
+		while(!this.isDone(t)) {
+			for(int k = 0; k < SWEEP / TABU_SAMPLE; k++, iteration++) {
+				int best_delta = Integer.MAX_VALUE;
+				int best_i1 = -1, best_i2 = -1, best_j = -1;
+				for(int s = 0; s < TABU_SAMPLE; s++) {
+					int j = t.rand.nextInt(genes.length);
+					int i1 = t.rand.nextInt(genes[j].length);
+					int i2 = t.rand.nextInt(genes[j].length);
+					if(genes[j][i1] == genes[j][i2] || !this.movable(i1, i2, j))
+						continue;
+					int delta = t.delta(i1, i2, j);
+					t.swap(i1, i2, j);	// undo
+					boolean tabu = tabu_until[i1][j] > iteration || tabu_until[i2][j] > iteration;
+					if(tabu && t.penalty + delta >= t.best_penalty)
+						continue;	// tabu, and no new best to aspire to
+					if(delta < best_delta) {
+						best_delta = delta;
+						best_i1 = i1;
+						best_i2 = i2;
+						best_j = j;
+					}
+				}
+				if(best_j < 0)
+					continue;
+				t.delta(best_i1, best_i2, best_j);
+				t.accept();
+				long tenure = TABU_TENURE + t.rand.nextInt(TABU_TENURE);
+				tabu_until[best_i1][best_j] = iteration + tenure;
+				tabu_until[best_i2][best_j] = iteration + tenure;
+			}
+			moves += SWEEP / TABU_SAMPLE * TABU_SAMPLE;
+		}
+	}
+
+	/**
+	 * Parallel tempering: every replica runs a sweep of moves at its own temperature, the replicas in
+	 * parallel, and then replicas at neighbouring temperatures exchange their schedules with probability
+	 * min(1, exp((1/T1 - 1/T2)(E1 - E2))).
+	 */
+	private void temper() {
+
+		Trajectory[] ladder = new Trajectory[replicas];
+		for(int r = 0; r < replicas; r++)
+			ladder[r] = new Trajectory(r == 0 ? this.start() : this.random(), new Random(rand.nextLong()));
+
+		// geometric ladder from a thousandth of the initial temperature up to it
+		double initial = ladder[0].initialTemperature();
+		double[] temperature = new double[replicas];
+		for(int r = 0; r < replicas; r++)
+			temperature[r] = initial * Math.pow(COOLING, 1 - (double) r / (replicas - 1));
+
+		while(true) {
+			IntStream.range(0, replicas).parallel().forEach(r -> {
+				for(int k = 0; k < SWEEP; k++)
+					ladder[r].metropolis(temperature[r]);
+			});
+			moves += (long) SWEEP * replicas;
+
+			Trajectory leader = ladder[0];
+			for(Trajectory t : ladder) {
+				if(t.best_penalty < leader.best_penalty)
+					leader = t;
+			}
+			if(this.isDone(leader))
+				break;
+
+			for(int r = 0; r + 1 < replicas; r++) {
+				double exponent = (1 / temperature[r] - 1 / temperature[r + 1]) * (ladder[r].penalty - ladder[r + 1].penalty);
+				if(exponent >= 0 || rand.nextDouble() < Math.exp(exponent)) {
+					Trajectory t = ladder[r];
+					ladder[r] = ladder[r + 1];
+					ladder[r + 1] = t;
+				}
+			}
+		}
+		for(Trajectory t : ladder)
+			this.offer(t.bestSchedule());
+	}
+
+	// Initial schedule of the run: the seed or the previous schedule of a warm start, repaired, if any
+	private Individual start() {
+
+		if(seed == null && warm_start == null)
+			return this.random();
+		Individual id = (seed != null ? seed : warm_start.getPrevious()).copy();
+		if(warm_start != null)
+			warm_start.repair(id);
+		return id;
+	}
+
+	private Individual random() {
+
+		Individual id = new Individual(instance);
+		id.createIndividual(rand);
+		if(warm_start != null)
+			warm_start.repair(id);
+		return id;
+	}
+
+	// A swap of two employees on a day keeps the unavailable employees off
+	private boolean movable(int i1, int i2, int j) {
+		return warm_start == null || !(warm_start.isUnavailable(i1, j) || warm_start.isUnavailable(i2, j));
+	}
+
+	// Fraction of the run done, in time with a time budget, in moves otherwise
+	private double progress() {
+
+		double progress = (time_budget > 0) ? (System.nanoTime() - startTime) / (time_budget * 1e6)
+							: (double) moves / max_moves;
+		return Math.min(1, progress);
+	}
+
+	// Stopping criteria, checked after every sweep with the trajectory holding the best schedule
+	private boolean isDone(Trajectory t) {
+
+		if(t.best_penalty < (best == null ? Integer.MAX_VALUE : best.getTotalPenalty())) {
+			t.snapshot();
+			this.offer(t.bestSchedule());
+		}
+		if(cancelled || best.getTotalPenalty() <= target_penalty
+				|| (lower_bound != null && best.getTotalPenalty() <= lower_bound.getBound()))
+			return true;
+		if(time_budget > 0)	// the number of moves is then ignored
+			return System.nanoTime() - startTime >= time_budget * 1000000L;
+		return moves >= max_moves;
+	}
+
+	// Keep the schedule as best if it improves the best so far
+	private void offer(Individual candidate) {
+
+		if(best == null || candidate.getTotalPenalty() < best.getTotalPenalty()) {
+			best = candidate;
+			time_to_best = (System.nanoTime() - startTime) / 1000000L;
+		}
+	}
+
+	/**
+	 * Requests the run to stop. Safe to call from any thread.
+	 */
+	public void cancel() {
+		cancelled = true;
+	}
+
+	/**
+	 * A schedule being improved by moves, with the penalty of every employee and its best schedule.
+	 * The best schedule is copied lazily, only when the trajectory is about to leave it.
+	 */
+	private class Trajectory {
+
+		final int[][] genes;			// by day, genes[j][i]
+		final int[] row_penalty;	// by employee
+		final Random rand;
+		int penalty;
+
+		int[][] best_genes;
+		int best_penalty;
+		boolean at_best;	// the genes are the best schedule, not copied yet
+
+		// rows and day of the last move scored, and the new penalty of the rows
+		private int row1, row2, day, new1, new2;
+
+		Trajectory(Individual start, Random rand) {
+
+			// the moves are made on the days of the start schedule, owned by it first
+			this.genes = new int[instance.getDays()][];
+			for(int j = 0; j < genes.length; j++)
+				genes[j] = start.writeDay(j);
+			this.rand = rand;
+			this.row_penalty = new int[instance.getEmployees()];
+			for(int i = 0; i < row_penalty.length; i++) {
+				row_penalty[i] = fit.calc_Penalty(genes, i, i + 1, null);
+				penalty += row_penalty[i];
+			}
+			best_penalty = penalty;
+			at_best = true;
+		}
+
+		// Swap the shifts of two employees on a day
+		void swap(int i1, int i2, int j) {
+
+			int[] shifts = genes[j];
+			int shift = shifts[i1];
+			shifts[i1] = shifts[i2];
+			shifts[i2] = shift;
+		}
+
+		// Make the move and return the change of penalty; undone by swap(), kept by accept()
+		int delta(int i1, int i2, int j) {
+
+			this.swap(i1, i2, j);
+			row1 = i1;
+			row2 = i2;
+			day = j;
+			new1 = fit.calc_Penalty(genes, i1, i1 + 1, null);
+			new2 = fit.calc_Penalty(genes, i2, i2 + 1, null);
+			return new1 + new2 - row_penalty[i1] - row_penalty[i2];
+		}
+
+		// Keep the last move scored
+		void accept() {
+
+			int delta = new1 + new2 - row_penalty[row1] - row_penalty[row2];
+			if(delta > 0 && at_best) {	// leaving the best schedule, copy it first
+				this.swap(row1, row2, day);
+				this.snapshot();
+				this.swap(row1, row2, day);
+			}
+			row_penalty[row1] = new1;
+			row_penalty[row2] = new2;
+			penalty += delta;
+			if(penalty < best_penalty) {
+				best_penalty = penalty;
+				at_best = true;
+			}
+		}
+
+		// One move of annealing at a temperature
+		void metropolis(double temperature) {
+
+			int j = rand.nextInt(genes.length);
+			int i1 = rand.nextInt(genes[j].length);
+			int i2 = rand.nextInt(genes[j].length);
+			if(genes[j][i1] == genes[j][i2] || !LocalSearch.this.movable(i1, i2, j))
+				return;
+			int delta = this.delta(i1, i2, j);
+			if(delta <= 0 || rand.nextDouble() < Math.exp(-delta / temperature))
+				this.accept();
+			else
+				this.swap(i1, i2, j);
+		}
+
+		// Temperature at which about half of the worse moves from the schedule are accepted
+		double initialTemperature() {
+
+			long sum = 0;
+			int worse = 0;
+			for(int s = 0; s < SAMPLE * 10 && worse < SAMPLE; s++) {
+				int j = rand.nextInt(genes.length);
+				int i1 = rand.nextInt(genes[j].length);
+				int i2 = rand.nextInt(genes[j].length);
+				if(!LocalSearch.this.movable(i1, i2, j))
+					continue;
+				int delta = this.delta(i1, i2, j);
+				this.swap(i1, i2, j);
+				if(delta > 0) {
+					sum += delta;
+					worse++;
+				}
+			}
+			return worse == 0 ? 1 : (double) sum / worse / Math.log(2);
+		}
+
+		// Copy the genes as best schedule if they are the best schedule
+		void snapshot() {
+
+			if(!at_best)
+				return;
+			if(best_genes == null)
+				best_genes = new int[genes.length][];
+			for(int j = 0; j < genes.length; j++)
+				best_genes[j] = genes[j].clone();
+			at_best = false;
+		}
+
+		Individual bestSchedule() {
+
+			this.snapshot();
+			Individual id = new Individual(instance);
+			for(int j = 0; j < genes.length; j++)
+				id.setDay(j, best_genes[j].clone());
+			id.setTotalPenalty(best_penalty);
+			return id;
+		}
+	}
+
+	/*********************************************
+	* Setters and Getters
+	*********************************************/
+	public void setTimeBudget(long time_budget) {
+		this.time_budget = time_budget;
+	}
+
+	public void setTargetPenalty(int target_penalty) {
+		this.target_penalty = target_penalty;
+	}
+
+	public void setRandomSeed(long seed) {
+		this.rand = new Random(seed);
+		if(warm_start != null)
+			warm_start.setRandom(rand);
+	}
+
+	public void setSeed(Individual seed) {
+		this.seed = seed;
+	}
+
+	// Start from a previous schedule; its deviation weight, if any, is added to the fitness
+	public void setWarmStart(WarmStart warm_start) {
+		this.warm_start = warm_start;
+		if(warm_start != null)
+			warm_start.setRandom(rand);
+		if(warm_start != null && warm_start.getDeviationWeight() > 0)
+			fit.setReference(warm_start.getPrevious().getGenes(), warm_start.getDeviationWeight());
+		else
+			fit.setReference(null, 0);
+	}
+
+	public void setReplicas(int replicas) {
+		if(replicas < 2)
+			throw new IllegalArgumentException("Parallel tempering needs at least 2 replicas");
+		this.replicas = replicas;
+	}
+
+	public void setConstraintModel(ConstraintModel model) {
+		fit.setModel(model);
+	}
+
+	public Individual getBest() {
+		return best;
+	}
+
+	// fitness of the run, with its soft constraints and reference schedule
+	public Fitness getFitness() {
+		return fit;
+	}
+
+	// bound of the penalty computed when the run started, null if unknown (soft constraints of a rule file)
+	public LowerBound getLowerBound() {
+		return lower_bound;
+	}
+
+	public long getMoves() {
+		return moves;
+	}
+
+	// elapsed time of the run in milliseconds
+	public long getElapsedTime() {
+		return elapsed;
+	}
+
+	// time the best schedule was found in milliseconds
+	public long getTimeToBest() {
+		return time_to_best;
+	}
+}
@@ -0,0 +1,297 @@
+/***********************************************************************************************************
+
+	LowerBound computes a penalty that no schedule meeting the demand of an instance can go below, from
+	the demand of every shift on every day, the hours of the shifts and the structure of the WHPP soft
+	constraints. The penalty is a sum over the soft constraints, so the bound is the sum of a bound for
+	every constraint, each one a relaxation keeping the demand of the days and forgetting the other
+	constraints:
+
+	- working hours (1): the hours demanded in every 14-day period are spread over the employees. An
+	  employee works at most 70 hours of a period without a violation, and every violation resets the
+	  count after at most 70 hours and a shift more, so the fewest violations covering the hours are
+	  counted. The counts start again at every period, so the bounds of the periods are added.
+	- consecutive working days (2), night shifts (3) and shifts (8): in a block of as many days as the
+	  run that is penalised, at most (days - 1) shifts of every employee can leave a day of the block
+	  uncovered, so the shifts demanded beyond that are employees working the whole block, each with a
+	  violation in it. The blocks do not overlap, so their violations are distinct.
+	- successions (4, 5 and 6): the employees on every shift of a day move to the shifts of the next day,
+	  a transportation problem between the demands of the two days, solved as a small min-cost flow.
+	- weekends (11): employees working a whole weekend are at least those demanded on both days beyond
+	  the number of employees, and the employees working two consecutive weekends at least those of both
+	  weekends beyond it.
+
+	The other constraints, and the deviation from a reference schedule, are bounded by 0. When a run
+	reaches the bound no schedule can do better, so the engines stop there, and the gap between the
+	best penalty and the bound is how far from optimal the best schedule may be.
+
+	Date:	 2026
+***********************************************************************************************************/
+
+import java.util.Arrays;
+
+public class LowerBound {
+
+	// working hours counted by constraint 1 without a violation
+	private static final int MAX_HOURS = 70;
+	// the terms of the bound, and the soft constraints they bound
+	private static final String[] TERMS = {"hours", "working days", "night shifts", "successions", "shifts", "weekends"};
+	private static final int[][] CONSTRAINTS = {{1}, {2}, {3}, {4, 5, 6}, {8}, {11}};
+
+	private final Instance instance;
+	private final int[] weights;
+	private final int[] bounds;		// bound of every term
+
+	/**
+	 * Computes the bound of the schedules of an instance.
+	 *
+	 * @param weights the weight of every soft constraint, from constraint 1
+	 * @param history the state of the employees before the first day, or null
+	 */
+	LowerBound(Instance instance, int[] weights, Fitness.History history) {
+
+		this.instance = instance;
+		this.weights = weights;
+		this.bounds = new int[TERMS.length];
+
+		bounds[0] = this.hours(history) * weights[0];
+		bounds[1] = this.runs(8, false) * weights[1];
+		bounds[2] = this.runs(5, true) * weights[2];
+		for(int j = 0; j + 1 < instance.getDays(); j++)
+			bounds[3] += this.successions(j);
+		bounds[4] = this.runs(7, false) * weights[7];
+		bounds[5] = this.weekends() * weights[10];
+	}
+
+	// Fewest violations of constraint 1 covering the hours demanded, summed over the periods of the horizon
+	private int hours(Fitness.History history) {
+
+		// the counts start again at every period, so the violations of the periods are distinct
+		int offset = (history == null) ? 0 : history.day % Fitness.HOURS_PERIOD;
+		int violations = 0;
+		for(int from = 0; from < instance.getDays(); from += Fitness.HOURS_PERIOD - offset, offset = 0)
+			violations += this.hours(from, Math.min(from + Fitness.HOURS_PERIOD - offset, instance.getDays()),
+									(offset == 0) ? null : history);
+		return violations;
+	}
+
+	// Fewest violations of constraint 1 covering the hours demanded in the days of a period
+	private int hours(int from, int to, Fitness.History history) {
+
+		int employees = instance.getEmployees();
+		int[] shift_hours = {0, Individual.MORNING_SHIFT, Individual.AFTERNOON_SHIFT, Individual.NIGHT_SHIFT};
+		int longest = Math.max(shift_hours[1], Math.max(shift_hours[2], shift_hours[3]));
+
+		// hours demanded, and the most hours an employee can work, on the longest shift of every day
+		long demanded = 0;
+		int capacity = 0;
+		for(int j = from; j < to; j++) {
+			int most = 0;
+			for(int s = 1; s < 4; s++) {
+				demanded += (long) instance.getDemand(s, j) * shift_hours[s];
+				if(instance.getDemand(s, j) > 0)
+					most = Math.max(most, shift_hours[s]);
+			}
+			capacity += most;
+		}
+
+		// hours without a violation; beyond them, every violation covers at most 70 hours and a shift
+		int chunk = MAX_HOURS + longest;
+		int[] chunks = new int[employees * (capacity / chunk + 1)];
+		int n = 0;
+		for(int i = 0; i < employees; i++) {
+			// hours of the period counted before the first day, a count over 70 is reset by the first shift
+			int before = (history == null) ? 0 : Math.min(history.hours[i], MAX_HOURS);
+			int free = Math.min(capacity, MAX_HOURS - before);
+			demanded -= free;
+			for(int extra = capacity - free; extra > 0; extra -= chunk)
+				chunks[n++] = Math.min(extra, chunk);
+		}
+
+		// the largest chunks first
+		Arrays.sort(chunks, 0, n);
+		int violations = 0;
+		for(int k = n - 1; k >= 0 && demanded > 0; k--) {
+			demanded -= chunks[k];
+			violations++;
+		}
+		return violations;
+	}
+
+	/**
+	 * Violations of the runs of more than length-1 days (working days, or night shifts) forced by the
+	 * demand of disjoint blocks of length days, for the best position of the blocks.
+	 */
+	private int runs(int length, boolean nights) {
+
+		int employees = instance.getEmployees();
+		int best = 0;
+		for(int offset = 0; offset < length; offset++) {
+			int violations = 0;
+			for(int b = offset; b + length <= instance.getDays(); b += length) {
+				int shifts = 0;
+				for(int j = b; j < b + length; j++)
+					shifts += nights ? instance.getDemand(3, j) : employees - instance.getDemand(0, j);
+				violations += Math.max(0, shifts - (length - 1) * employees);
+			}
+			best = Math.max(best, violations);
+		}
+		return best;
+	}
+
+	/**
+	 * Lowest penalty of the employees moving from a night to a morning, an afternoon to a morning and a
+	 * night to an afternoon shift between day j and the next one: a transportation problem from the
+	 * shifts of day j to the shifts of day j+1, solved by successive shortest paths on its residual graph.
+	 * Only the penalty of the three constraints together is a bound, not the penalty of each of them.
+	 */
+	private int successions(int j) {
+
+		int[][] cost = new int[4][4];
+		cost[3][1] = weights[3];
+		cost[2][1] = weights[4];
+		cost[3][2] = weights[5];
+
+		int[] supply = new int[4];
+		int[] demand = new int[4];
+		for(int s = 0; s < 4; s++) {
+			supply[s] = instance.getDemand(s, j);
+			demand[s] = instance.getDemand(s, j + 1);
+		}
+		int[][] flow = new int[4][4];
+
+		// nodes 0-3: shifts of day j, 4-7: shifts of day j+1; paths from a supply to a demand left
+		while(true) {
+			long[] dist = new long[8];
+			int[] prev = new int[8];
+			Arrays.fill(dist, Long.MAX_VALUE);
+			Arrays.fill(prev, -1);
+			for(int s = 0; s < 4; s++) {
+				if(supply[s] > 0)
+					dist[s] = 0;
+			}
+			// Bellman-Ford: forward arcs s -> t of any capacity, backward arcs t -> s up to the flow
+			for(int round = 0; round < 8; round++) {
+				boolean changed = false;
+				for(int s = 0; s < 4; s++) {
+					for(int t = 0; t < 4; t++) {
+						if(dist[s] != Long.MAX_VALUE && dist[s] + cost[s][t] < dist[4 + t]) {
+							dist[4 + t] = dist[s] + cost[s][t];
+							prev[4 + t] = s;
+							changed = true;
+						}
+						if(flow[s][t] > 0 && dist[4 + t] != Long.MAX_VALUE && dist[4 + t] - cost[s][t] < dist[s]) {
+							dist[s] = dist[4 + t] - cost[s][t];
+							prev[s] = 4 + t;
+							changed = true;
+						}
+					}
+				}
+				if(!changed)
+					break;
+			}
+
+			// cheapest shift of day j+1 still demanded
+			int end = -1;
+			for(int t = 0; t < 4; t++) {
+				if(demand[t] > 0 && dist[4 + t] != Long.MAX_VALUE && (end < 0 || dist[4 + t] < dist[4 + end]))
+					end = t;
+			}
+			if(end < 0)
+				break;
+
+			// bottleneck of the path, then push along it
+			int amount = demand[end];
+			int node = 4 + end;
+			while(prev[node] >= 0) {
+				int from = prev[node];
+				if(node < 4)	// backward arc
+					amount = Math.min(amount, flow[node][from - 4]);
+				node = from;
+			}
+			amount = Math.min(amount, supply[node]);
+
+			node = 4 + end;
+			while(prev[node] >= 0) {
+				int from = prev[node];
+				if(node >= 4)
+					flow[from][node - 4] += amount;
+				else
+					flow[node][from - 4] -= amount;
+				node = from;
+			}
+			supply[node] -= amount;
+			demand[end] -= amount;
+		}
+		int penalty = 0;
+		for(int s = 0; s < 4; s++) {
+			for(int t = 0; t < 4; t++)
+				penalty += flow[s][t] * cost[s][t];
+		}
+		return penalty;
+	}
+
+	// Employees forced to work two consecutive weekends (Saturday and Sunday) by the demand
+	private int weekends() {
+
+		int employees = instance.getEmployees();
+		int violations = 0;
+		int last = -1;	// employees forced to work the previous weekend, -1 before the first one
+		for(int j = 0; j + 1 < instance.getDays(); j++) {
+			if(instance.getWeekday(j) == 5) {	// Saturday
+				int both = Math.max(0, employees - instance.getDemand(0, j) - instance.getDemand(0, j + 1));
+				if(last >= 0)
+					violations += Math.max(0, last + both - employees);
+				last = both;
+			}
+		}
+		return violations;
+	}
+
+	// the bound of the penalty
+	public int getBound() {
+		int bound = 0;
+		for(int b : bounds)
+			bound += b;
+		return bound;
+	}
+
+	// number of terms of the bound
+	public int getTerms() {
+		return bounds.length;
+	}
+
+	// the bound of the sum of the penalties of the soft constraints of term k, see getConstraints()
+	public int getBound(int k) {
+		return bounds[k];
+	}
+
+	// the soft constraints bounded by term k, from constraint 1
+	public int[] getConstraints(int k) {
+		return CONSTRAINTS[k].clone();
+	}
+
+	/**
+	 * Relative gap between a penalty and the bound: the fraction of the penalty that a better schedule
+	 * might still remove, 0 when the penalty reaches the bound.
+	 */
+	public double gap(int penalty) {
+		return penalty <= 0 ? 0 : Math.max(0, (double) (penalty - this.getBound()) / penalty);
+	}
+
+	// the bound and the terms it comes from, e.g. "3000 (hours 3000)"
+	@Override
+	public String toString() {
+
+		StringBuilder s = new StringBuilder().append(this.getBound());
+		String sep = " (";
+		for(int c = 0; c < bounds.length; c++) {
+			if(bounds[c] > 0) {
+				s.append(sep).append(TERMS[c]).append(' ').append(bounds[c]);
+				sep = ", ";
+			}
+		}
+		if(sep.equals(", "))
+			s.append(')');
+		return s.toString();
+	}
+}
@@ -0,0 +1,423 @@
+/***********************************************************************************************************
+
+	Nsga2 is the multi-objective mode of the scheduler: an NSGA-II genetic algorithm that keeps the
+	groups of soft constraints apart instead of adding their weighted penalties.
+
+	Every schedule has three objectives, the penalties of working time and rest, of successions of shifts
+	and of preferences (see Fitness.calc_Objectives). The demand of every shift is a hard constraint
+	met by every schedule, so it is not an objective. The result is the Pareto front of the last
+	population: the schedules no other schedule beats in every group.
+
+	Every generation breeds as many children as the population, and the population and the children
+	are merged and sorted in non-dominated fronts, which are taken in order into the next population,
+	the last front that does not fit whole by descending crowding distance.
+
+	The non-dominated sort is an efficient non-dominated sort (ENS) with binary search over the fronts:
+	the schedules are sorted lexicographically by their objectives, so that no schedule is dominated by a
+	schedule after it, and each schedule is put in the first front with no schedule dominating it. Every
+	front keeps the staircase of its schedules in the last two objectives (the first one being already
+	sorted), so the dominance test against a front is one lookup in a sorted map, and the sort takes
+	O(N log N) time instead of the O(N^2) of the original fast non-dominated sort, for populations of
+	hundreds of thousands of schedules. The crowding distances are computed in buffers allocated once.
+
+	Usage: java Nsga2 [-f <instance>] [-i <popSize> <iterMax> <pCross> <pMut>] [-t <seconds>]
+					  [-seed <randomSeed>] [-o <frontFile>]
+
+	Date:	 2026
+***********************************************************************************************************/
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.IntStream;
+
+public class Nsga2 {
+
+	// genes of a generation under which evaluation is not worth parallelising
+	private static final long PARALLEL_GENES = 200000;
+
+	private Instance instance;
+	private int popSize;
+	private int iter_max;
+	private double p_cross;
+	private double p_mut;
+	private long time_budget;	// wall-clock budget in milliseconds, 0 for none
+	private Random rand;
+	private Fitness fit;
+
+	private Individual[] pop;		// the population, followed by the children of the generation
+	private int[] rank;				// front of every individual of pop, 0 for the Pareto front
+	private double[] crowding;		// crowding distance of every individual of pop in its front
+
+	// buffers of the sort, allocated once
+	private Integer[] order;		// individuals in lexicographic order of their objectives
+	private int[] by_front;			// individuals grouped by front
+	private int[] front_start;		// start of every front in by_front, and the end of the last one
+	private long[] keys;			// objective value and index of the members of a front
+	private int fronts;
+
+	private int generations;
+	private long sort_time;			// time spent sorting, in nanoseconds
+	private long elapsed;			// duration of the run in milliseconds
+
+	public Nsga2(Instance instance, int popSize, int iter_max, double p_cross, double p_mut) {
+
+		this.instance = instance;
+		this.popSize = popSize;
+		this.iter_max = iter_max;
+		this.p_cross = p_cross;
+		this.p_mut = p_mut;
+		this.time_budget = 0;
+		this.rand = new Random();
+		this.fit = new Fitness(instance);
+	}
+
+	public static void main(String[] args) throws IOException {
+
+		Instance instance = Instance.WHPP;
+		int popSize = 1000;
+		int iter_max = 200;
+		double p_cross = 0.85;
+		double p_mut = 0.015;
+		String output_file = null;
+		for(int a = 0; a < args.length; a++) {
+			if(args[a].equals("-f"))
+				instance = Instance.read(Path.of(args[++a]));
+			else if(args[a].equals("-i")) {
+				popSize = Integer.parseInt(args[++a]);
+				iter_max = Integer.parseInt(args[++a]);
+				p_cross = Double.parseDouble(args[++a]);
+				p_mut = Double.parseDouble(args[++a]);
+			} else if(args[a].equals("-o"))
+				output_file = args[++a];
+		}
+
+		Nsga2 nsga = new Nsga2(instance, popSize, iter_max, p_cross, p_mut);
+		for(int a = 0; a < args.length; a++) {
+			if(args[a].equals("-t"))
+				nsga.setTimeBudget((long) (Double.parseDouble(args[++a]) * 1000));
+			else if(args[a].equals("-seed"))
+				nsga.setRandomSeed(Long.parseLong(args[++a]));
+		}
+
+		List<Individual> front = nsga.run();
+		System.out.println("Pareto front: " + front.size() + " schedules after " + nsga.getGenerations() + " generations");
+		System.out.println("   Rest  Succession  Preference    Total");
+		Map<String, Individual> distinct = new TreeMap<>();
+		for(Individual id : front) {
+			int[] o = id.getObjectives();
+			distinct.putIfAbsent(String.format("%7d  %10d  %10d  %7d", o[0], o[1], o[2], id.getTotalPenalty()), id);
+		}
+		for(String line : distinct.keySet())
+			System.out.println(line);
+		System.out.println("Elapsed Time: " + nsga.getElapsedTime() + " ms, non-dominated sorting " + nsga.getSortTime() + " ms");
+
+		if(output_file != null) {
+			try(BufferedWriter out = Files.newBufferedWriter(Path.of(output_file))) {
+				for(Individual id : distinct.values()) {
+					int[] o = id.getObjectives();
+					id.writeSchedule(out, "instance " + instance.getName(), "objectives " + o[0] + " " + o[1] + " " + o[2],
+										"penalty " + id.getTotalPenalty());
+					out.newLine();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Runs the generations until iter_max or the time budget.
+	 *
+	 * @return the Pareto front of the last population
+	 */
+	public List<Individual> run() {
+
+		long startTime = System.nanoTime();
+		long deadline = startTime + time_budget * 1000000L;
+		pop = new Individual[2 * popSize];
+		rank = new int[2 * popSize];
+		crowding = new double[2 * popSize];
+		order = new Integer[2 * popSize];
+		by_front = new int[2 * popSize];
+		front_start = new int[2 * popSize + 1];
+		keys = new long[2 * popSize];
+		sort_time = 0;
+
+		for(int i = 0; i < popSize; i++) {
+			pop[i] = new Individual(instance);
+			pop[i].createIndividual(rand);
+		}
+		this.evaluate(0, popSize);
+		this.rankPopulation(popSize, popSize);
+
+		for(generations = 0; generations < iter_max; generations++) {
+			if(time_budget > 0 && System.nanoTime() >= deadline)
+				break;
+
+			for(int c = popSize; c < 2 * popSize; c++)
+				pop[c] = this.breed(this.tournament(), this.tournament());
+			this.evaluate(popSize, 2 * popSize);
+			this.rankPopulation(2 * popSize, popSize);
+		}
+
+		List<Individual> front = new ArrayList<>();
+		for(int i = 0; i < popSize; i++) {
+			if(rank[i] == 0)
+				front.add(pop[i]);
+		}
+		front.sort((id1, id2) -> compare(id1.getObjectives(), id2.getObjectives()));
+		elapsed = (System.nanoTime() - startTime) / 1000000L;
+		return front;
+	}
+
+	// Evaluate the objectives of pop[from..to), in parallel when it pays off
+	private void evaluate(int from, int to) {
+
+		if((long) (to - from) * instance.getEmployees() * instance.getDays() < PARALLEL_GENES)
+			for(int i = from; i < to; i++)
+				fit.calc_Objectives(pop[i]);
+		else
+			IntStream.range(from, to).parallel().forEach(i -> fit.calc_Objectives(pop[i]));
+	}
+
+	/**
+	 * Sorts the first n individuals of pop in fronts and keeps the best `keep` of them at the start of
+	 * pop, whole fronts first and the last front by descending crowding distance, with their rank and
+	 * crowding distance.
+	 */
+	private void rankPopulation(int n, int keep) {
+
+		long start = System.nanoTime();
+		this.nonDominatedSort(n);
+
+		// take whole fronts while they fit, and compute the crowding distances of the fronts taken
+		Individual[] next = new Individual[keep];
+		int[] next_rank = new int[keep];
+		double[] next_crowding = new double[keep];
+		int size = 0;
+		for(int f = 0; f < fronts && size < keep; f++) {
+			int from = front_start[f];
+			int to = front_start[f + 1];
+			this.crowdingDistance(from, to);
+			if(size + to - from > keep) {	// the last front, the least crowded first
+				for(int k = from; k < to; k++)
+					order[k - from] = by_front[k];
+				Arrays.sort(order, 0, to - from, (i1, i2) -> Double.compare(crowding[i2], crowding[i1]));
+				for(int k = 0; size < keep; k++)
+					size = this.take(order[k], f, next, next_rank, next_crowding, size);
+			} else {
+				for(int k = from; k < to; k++)
+					size = this.take(by_front[k], f, next, next_rank, next_crowding, size);
+			}
+		}
+
+		System.arraycopy(next, 0, pop, 0, keep);
+		System.arraycopy(next_rank, 0, rank, 0, keep);
+		System.arraycopy(next_crowding, 0, crowding, 0, keep);
+		Arrays.fill(pop, keep, pop.length, null);
+		sort_time += System.nanoTime() - start;
+	}
+
+	// Put the individual i of the front f into the next population
+	private int take(int i, int f, Individual[] next, int[] next_rank, double[] next_crowding, int size) {
+
+		next[size] = pop[i];
+		next_rank[size] = f;
+		next_crowding[size] = crowding[i];
+		return size + 1;
+	}
+
+	/**
+	 * Efficient non-dominated sort of the first n individuals of pop, with binary search over the fronts.
+	 * Sets the rank of every individual, and groups the individuals by front in by_front.
+	 */
+	private void nonDominatedSort(int n) {
+
+		for(int i = 0; i < n; i++)
+			order[i] = i;
+		Arrays.sort(order, 0, n, (i1, i2) -> compare(pop[i1].getObjectives(), pop[i2].getObjectives()));
+
+		List<Staircase> stairs = new ArrayList<>();
+		int[] front_size = new int[n];
+		for(int k = 0; k < n; k++) {
+			int i = order[k];
+			int[] o = pop[i].getObjectives();
+
+			// an individual dominated by a front is dominated by every front before it
+			int low = 0;
+			int high = stairs.size();
+			while(low < high) {
+				int mid = (low + high) >>> 1;
+				if(stairs.get(mid).dominates(o))
+					low = mid + 1;
+				else
+					high = mid;
+			}
+			if(low == stairs.size())
+				stairs.add(new Staircase());
+			stairs.get(low).add(o);
+			rank[i] = low;
+			front_size[low]++;
+		}
+
+		// group the individuals by front, in lexicographic order inside every front
+		fronts = stairs.size();
+		front_start[0] = 0;
+		for(int f = 0; f < fronts; f++)
+			front_start[f + 1] = front_start[f] + front_size[f];
+		int[] fill = Arrays.copyOf(front_start, fronts);
+		for(int k = 0; k < n; k++) {
+			int i = order[k];
+			by_front[fill[rank[i]]++] = i;
+		}
+	}
+
+	// Lexicographic order of the objectives
+	private static int compare(int[] o1, int[] o2) {
+
+		for(int m = 0; m < Fitness.OBJECTIVES; m++) {
+			if(o1[m] != o2[m])
+				return o1[m] < o2[m] ? -1 : 1;
+		}
+		return 0;
+	}
+
+	/**
+	 * Crowding distance of the members by_front[from..to) of a front: the sum over the objectives of the
+	 * distance between the two neighbours of a member, normalised by the range of the objective.
+	 * The members at the ends of a front get an infinite distance.
+	 */
+	private void crowdingDistance(int from, int to) {
+
+		for(int k = from; k < to; k++)
+			crowding[by_front[k]] = 0;
+		int n = to - from;
+		if(n <= 2) {
+			for(int k = from; k < to; k++)
+				crowding[by_front[k]] = Double.POSITIVE_INFINITY;
+			return;
+		}
+
+		for(int m = 0; m < Fitness.OBJECTIVES; m++) {
+			// the penalties are not negative, so value and index pack in one sortable long
+			for(int k = 0; k < n; k++) {
+				int i = by_front[from + k];
+				keys[k] = ((long) pop[i].getObjectives()[m] << 32) | i;
+			}
+			Arrays.sort(keys, 0, n);
+
+			long min = keys[0] >>> 32;
+			long max = keys[n - 1] >>> 32;
+			crowding[(int) keys[0]] = Double.POSITIVE_INFINITY;
+			crowding[(int) keys[n - 1]] = Double.POSITIVE_INFINITY;
+			if(max == min)
+				continue;
+			for(int k = 1; k < n - 1; k++)
+				crowding[(int) keys[k]] += (double) ((keys[k + 1] >>> 32) - (keys[k - 1] >>> 32)) / (max - min);
+		}
+	}
+
+	// Binary tournament of the population: the lower front wins, then the larger crowding distance
+	private Individual tournament() {
+
+		int i1 = rand.nextInt(popSize);
+		int i2 = rand.nextInt(popSize);
+		if(rank[i1] != rank[i2])
+			return pop[rank[i1] < rank[i2] ? i1 : i2];
+		return pop[crowding[i1] >= crowding[i2] ? i1 : i2];
+	}
+
+	/**
+	 * Uniform crossover of the parents followed by random mutation, as in GeneticAlgorithm. The child
+	 * shares its days with its parents until it mutates them, so the parents, which stay in the
+	 * population, are never changed.
+	 */
+	private Individual breed(Individual id1, Individual id2) {
+
+		Individual child;
+		if(rand.nextDouble() <= p_cross) {
+			child = new Individual(instance);
+			for(int j = 0; j < instance.getDays(); j++)
+				child.shareDay(j, rand.nextBoolean() ? id1 : id2);
+		} else
+			child = (rand.nextBoolean() ? id1 : id2).copy();
+
+		for(int j = 0; j < instance.getDays(); j++) {
+			if(rand.nextDouble() <= p_mut)
+				child.createGene(child, j, rand);
+		}
+		return child;
+	}
+
+	/**
+	 * The schedules of one front projected on the last two objectives, as a staircase: the second
+	 * objective increases and the third one decreases along the map. Every step also keeps the first
+	 * objective of the schedule it was inserted for.
+	 */
+	private static class Staircase {
+
+		// second objective -> third objective in the high half, first objective in the low half
+		private final TreeMap<Integer, Long> steps = new TreeMap<>();
+
+		/**
+		 * Tests if a schedule is dominated by a schedule of the front, all of which come before it in
+		 * lexicographic order, so their first objective is not greater.
+		 */
+		boolean dominates(int[] o) {
+
+			Map.Entry<Integer, Long> step = steps.floorEntry(o[1]);
+			if(step == null)
+				return false;
+			int third = (int) (step.getValue() >>> 32);
+			int first = (int) (long) step.getValue();
+			if(third != o[2])
+				return third < o[2];
+			// equal third objective: dominated unless the schedules have the same objectives
+			return step.getKey() < o[1] || first < o[0];
+		}
+
+		void add(int[] o) {
+
+			Map.Entry<Integer, Long> step = steps.floorEntry(o[1]);
+			if(step != null && (int) (step.getValue() >>> 32) <= o[2])
+				return;		// a schedule of the front is as good in the last two objectives
+			steps.put(o[1], ((long) o[2] << 32) | o[0]);
+			Map.Entry<Integer, Long> higher = steps.higherEntry(o[1]);
+			while(higher != null && (int) (higher.getValue() >>> 32) >= o[2]) {
+				steps.remove(higher.getKey());
+				higher = steps.higherEntry(o[1]);
+			}
+		}
+	}
+
+	/*********************************************
+	* Setters and Getters
+	*********************************************/
+	public void setTimeBudget(long time_budget) {
+		this.time_budget = time_budget;
+	}
+
+	public void setRandomSeed(long seed) {
+		this.rand = new Random(seed);
+	}
+
+	public int getGenerations() {
+		return generations;
+	}
+
+	// time spent sorting in fronts in milliseconds
+	public long getSortTime() {
+		return sort_time / 1000000L;
+	}
+
+	// elapsed time of the last run in milliseconds
+	public long getElapsedTime() {
+		return elapsed;
+	}
+}
@@ -15,17 +15,28 @@
 	Code updated by: D. Komninos, 2025
 *******************************************************************************************************************************/
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.Random;
 
 public class Population {
 	
 	Individual [] chromosomes;
+	private Instance instance;
 	private int populationSize;
 	private int feasibleSize;
 	
 	public Population(int popSize) {
+		this(popSize, Instance.WHPP);
+	}
+
+	public Population(int popSize, Instance instance) {
 		
 		this.chromosomes = new Individual[popSize];
+		this.instance = instance;
 		this.setPopulationSize(popSize);
 		this.setFeasibleSize(0);
 		 
@@ -38,12 +49,17 @@ public class Population {
 	 * Otherwise, the individual is marked as not feasible.
 	 */
 	public void InitialisePop() {
+		this.InitialisePop(new Random());
+	}
+
+	// Same as InitialisePop(), drawing the individuals from the given random number generator
+	public void InitialisePop(Random rand) {
 		 
-		Fitness fit = new Fitness();
+		Fitness fit = new Fitness(instance);
 		 
 		for(int i = 0; i < this.getPopulationSize(); i++) {
-			chromosomes[i] = new Individual();
-			chromosomes[i].createIndividual();
+			chromosomes[i] = new Individual(instance);
+			chromosomes[i].createIndividual(rand);
 			
 			if(fit.isValid(chromosomes[i])) {
 				chromosomes[i].setFeasible(true);
@@ -59,6 +75,36 @@ public class Population {
 		Arrays.sort(this.getChromosomes());
 	}
 	
+	/**
+	 * Writes every chromosome of the population to a text file, from the worst to the best,
+	 * each one preceded by its penalty as a comment. The file can be read with Individual.readSchedules().
+	 *
+	 * @param file the file to write
+	 * @throws IOException if the file cannot be written
+	 */
+	public void writePopulation(Path file) throws IOException {
+
+		try(BufferedWriter out = Files.newBufferedWriter(file)) {
+			for(int i = 0; i < this.getPopulationSize(); i++)
+				chromosomes[i].writeSchedule(out, "penalty " + chromosomes[i].getTotalPenalty());
+		}
+	}
+
+	/**
+	 * Returns the best individuals of the population, the best first. The population is sorted.
+	 *
+	 * @param n the number of individuals, at most the population size
+	 */
+	public Individual[] getElite(int n) {
+
+		this.FitnessSort();
+		n = Math.min(n, this.getPopulationSize());
+		Individual[] elite = new Individual[n];
+		for(int k = 0; k < n; k++)
+			elite[k] = chromosomes[this.getPopulationSize() - 1 - k];
+		return elite;
+	}
+
 	// Get Individual object at index
 	public Individual getIndividual(int index) {
 		return chromosomes[index];
@@ -80,6 +126,10 @@ public class Population {
 		this.chromosomes = chromosomes;
 	}
 
+	public Instance getInstance() {
+		return instance;
+	}
+
 	public int getPopulationSize() {
 		return populationSize;
 	}
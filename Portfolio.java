@@ -0,0 +1,355 @@
+/***********************************************************************************************************
+
+	Portfolio races several differently configured genetic algorithms on the same instance.
+
+	Which operators work best (uniform or two-point crossover, random, cyclic shift or guided mutation,
+	rank or tournament selection) depends on the instance and is not known in advance. The portfolio runs
+	one member per configuration, in time slices on a pool of worker threads: after each slice the member
+	is queued again behind the other members in the shared FIFO queue, so that every member gets a fair
+	share of the threads, and a member started later is not held behind the running ones.
+
+	The members share a global incumbent: every improvement is published to an atomic best-solution
+	holder, and the whole portfolio stops as soon as the incumbent reaches the target penalty.
+
+	At every round of the race the members are ranked by the best penalty they found themselves. The
+	worst members are killed and their share of the threads is given to the leader: each killed member
+	is replaced by a new member with the configuration of the leader, seeded with the incumbent. Members
+	started in the current round are never killed.
+
+	Usage: java Portfolio [-f <instance>] [-w <workers>] [-i <popSize> <iterMax> <pCross> <pMut>]
+						  [-t <seconds>] [-p <targetPenalty>] [-r <roundSeconds>] [-c <configurations>]
+
+	A configuration is written crossover/selection/mutation, e.g. uniform/rank/guided, and several
+	configurations are separated by commas.
+
+	Date:	 2026
+***********************************************************************************************************/
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class Portfolio {
+
+	// wall-clock length of one time slice of a member in milliseconds
+	private static final long SLICE = 50;
+	// fraction of the members killed at every round of the race
+	private static final double KILL_RATE = 0.25;
+
+	// configurations raced when none are given
+	public static final String DEFAULT = "uniform/rank/random,uniform/rank/guided,two_point/rank/random,"
+										+ "uniform/tournament/guided,two_point/tournament/shift,uniform/rank/shift";
+
+	/**
+	 * Operators of a member of the portfolio.
+	 */
+	public static class Configuration {
+
+		final GeneticAlgorithm.Crossover crossover;
+		final GeneticAlgorithm.Selection selection;
+		final GeneticAlgorithm.Mutation mutation;
+
+		public Configuration(GeneticAlgorithm.Crossover crossover, GeneticAlgorithm.Selection selection,
+								GeneticAlgorithm.Mutation mutation) {
+			this.crossover = crossover;
+			this.selection = selection;
+			this.mutation = mutation;
+		}
+
+		/**
+		 * Parses a configuration written crossover/selection/mutation, e.g. two_point/tournament/guided.
+		 */
+		public static Configuration parse(String text) {
+
+			String[] parts = text.trim().toUpperCase().split("/");
+			if(parts.length != 3)
+				throw new IllegalArgumentException("Invalid configuration " + text + ", expected crossover/selection/mutation");
+			return new Configuration(GeneticAlgorithm.Crossover.valueOf(parts[0]),
+									 GeneticAlgorithm.Selection.valueOf(parts[1]),
+									 GeneticAlgorithm.Mutation.valueOf(parts[2]));
+		}
+
+		// Parses configurations separated by commas
+		public static List<Configuration> parseAll(String text) {
+
+			List<Configuration> configurations = new ArrayList<>();
+			for(String part : text.split(","))
+				configurations.add(parse(part));
+			return configurations;
+		}
+
+		@Override
+		public String toString() {
+			return (crossover + "/" + selection + "/" + mutation).toLowerCase();
+		}
+	}
+
+	private final Instance instance;
+	private final ThreadPoolExecutor pool;
+
+	// parameters of every member
+	private int popSize = 1000;
+	private int iter_max = 200;
+	private double p_cross = 0.85;
+	private double p_mut = 0.015;
+	private long time_budget = 0;		// wall-clock budget in milliseconds, 0 for none
+	private int target_penalty = 0;
+	private long round = 1000;			// length of a round of the race in milliseconds
+
+	private final AtomicReference<Individual> incumbent;	// best individual of all the members
+	private final List<Member> members;		// every member started, alive or not
+	private int alive;
+	private volatile boolean cancelled;
+	private long startTime;
+	private long deadline;
+
+	public Portfolio(Instance instance, int workers) {
+
+		this.instance = instance;
+		// one FIFO queue shared by the workers, so that a member queued again waits behind the other members
+		this.pool = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+		this.incumbent = new AtomicReference<>();
+		this.members = new ArrayList<>();
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+
+		Instance instance = Instance.WHPP;
+		int workers = Runtime.getRuntime().availableProcessors();
+		String configurations = DEFAULT;
+		List<String> options = new ArrayList<>();
+		for(int a = 0; a < args.length; a++) {
+			if(args[a].equals("-f"))
+				instance = Instance.read(Path.of(args[++a]));
+			else if(args[a].equals("-w"))
+				workers = Integer.parseInt(args[++a]);
+			else if(args[a].equals("-c"))
+				configurations = args[++a];
+			else
+				options.add(args[a]);
+		}
+
+		Portfolio portfolio = new Portfolio(instance, workers);
+		for(int a = 0; a < options.size(); a++) {
+			if(options.get(a).equals("-i")) {
+				portfolio.popSize = Integer.parseInt(options.get(++a));
+				portfolio.iter_max = Integer.parseInt(options.get(++a));
+				portfolio.p_cross = Double.parseDouble(options.get(++a));
+				portfolio.p_mut = Double.parseDouble(options.get(++a));
+			} else if(options.get(a).equals("-t"))
+				portfolio.setTimeBudget((long) (Double.parseDouble(options.get(++a)) * 1000));
+			else if(options.get(a).equals("-p"))
+				portfolio.setTargetPenalty(Integer.parseInt(options.get(++a)));
+			else if(options.get(a).equals("-r"))
+				portfolio.setRound((long) (Double.parseDouble(options.get(++a)) * 1000));
+		}
+
+		Individual best = portfolio.run(Configuration.parseAll(configurations));
+		portfolio.printSummary();
+		System.out.println("\nBest schedule: penalty " + best.getTotalPenalty() + " after " + portfolio.getElapsedTime() + " ms");
+		best.printIndividual();
+	}
+
+	/**
+	 * Races the configurations until the target penalty is reached, the time budget is spent or every
+	 * member has run its generations.
+	 *
+	 * @param configurations the configurations to race, one member each
+	 * @return the best individual found by any member
+	 * @throws InterruptedException if interrupted while waiting for the members
+	 */
+	public Individual run(List<Configuration> configurations) throws InterruptedException {
+
+		startTime = System.nanoTime();
+		deadline = startTime + time_budget * 1000000L;
+
+		synchronized(this) {
+			for(Configuration configuration : configurations)
+				this.start(configuration, null);
+
+			long next_round = System.nanoTime() + round * 1000000L;
+			while(alive > 0) {
+				long wait = (next_round - System.nanoTime()) / 1000000L;
+				if(wait > 0) {
+					this.wait(wait);
+					continue;
+				}
+				this.race();
+				next_round += round * 1000000L;
+			}
+		}
+		pool.shutdown();
+		return incumbent.get();
+	}
+
+	// Start a member, queued behind the running members; must hold the lock
+	private void start(Configuration configuration, Individual seed) {
+
+		GeneticAlgorithm ga = new GeneticAlgorithm(instance, popSize, iter_max, p_cross, p_mut);
+		ga.setCrossover(configuration.crossover);
+		ga.setSelection(configuration.selection);
+		ga.setMutation(configuration.mutation);
+		// the members already share the threads, do not nest parallel evaluation
+		ga.setEvaluation(GeneticAlgorithm.Evaluation.SERIAL);
+		ga.setTargetPenalty(target_penalty);
+		if(time_budget > 0)	// the remaining budget of the portfolio
+			ga.setTimeBudget(Math.max(1, (deadline - System.nanoTime()) / 1000000L));
+		ga.setSeed(seed);
+		if(cancelled)
+			ga.cancel();
+
+		Member member = new Member(configuration, ga);
+		members.add(member);
+		alive++;
+		pool.execute(member);
+	}
+
+	/**
+	 * One round of the race: the worst members are killed and replaced by members with the configuration
+	 * of the leader, seeded with the incumbent. Must hold the lock.
+	 */
+	private void race() {
+
+		List<Member> ranked = new ArrayList<>();
+		for(Member member : members) {
+			if(!member.finished && !member.killed)
+				ranked.add(member);
+		}
+		ranked.sort(Comparator.comparingInt(member -> member.penalty));
+		if(ranked.size() < 2)
+			return;
+
+		Member leader = ranked.get(0);
+		int kill = Math.max(1, (int) (KILL_RATE * ranked.size()));
+		for(int k = ranked.size() - 1; k > 0 && kill > 0; k--) {
+			Member loser = ranked.get(k);
+			if(loser.rounds == 0 || loser.penalty <= leader.penalty)
+				continue;	// started in this round, or as good as the leader
+			loser.killed = true;
+			loser.ga.cancel();
+			this.start(leader.configuration, incumbent.get());
+			kill--;
+		}
+		for(Member member : ranked)
+			member.rounds++;
+	}
+
+	// Publish the individual as incumbent if it improves it, and stop every member at the target penalty
+	private void offer(Individual candidate) {
+
+		Individual current = incumbent.get();
+		while(current == null || candidate.getTotalPenalty() < current.getTotalPenalty()) {
+			if(incumbent.compareAndSet(current, candidate)) {
+				if(candidate.getTotalPenalty() <= target_penalty)
+					this.cancel();
+				return;
+			}
+			current = incumbent.get();
+		}
+	}
+
+	/**
+	 * Requests every member to stop. Safe to call from any thread.
+	 */
+	public void cancel() {
+
+		cancelled = true;
+		synchronized(this) {
+			for(Member member : members)
+				member.ga.cancel();
+		}
+	}
+
+	// Print the configuration, best penalty and fate of every member
+	public synchronized void printSummary() {
+
+		System.out.println("Member  Configuration                  Penalty  Generations  Rounds  Status");
+		for(int m = 0; m < members.size(); m++) {
+			Member member = members.get(m);
+			System.out.printf("%6d  %-29s %8d  %11d  %6d  %s%n", m + 1, member.configuration, member.penalty,
+								member.ga.getGenerations(), member.rounds, member.killed ? "killed" : "finished");
+		}
+	}
+
+	/**
+	 * One member of the portfolio. Every execution runs a time slice of generations and queues
+	 * the member again until its genetic algorithm is done or it is killed.
+	 */
+	private class Member implements Runnable {
+
+		final Configuration configuration;
+		final GeneticAlgorithm ga;
+		volatile int penalty = Integer.MAX_VALUE;	// best penalty found by the member
+		volatile boolean killed;
+		boolean finished;
+		int rounds;			// rounds of the race survived
+
+		Member(Configuration configuration, GeneticAlgorithm ga) {
+			this.configuration = configuration;
+			this.ga = ga;
+		}
+
+		@Override
+		public void run() {
+
+			try {
+				long slice_end = System.nanoTime() + SLICE * 1000000L;
+				if(ga.getBest() == null)
+					ga.init();
+				while(!ga.isDone() && System.nanoTime() < slice_end)
+					ga.step();
+
+				penalty = ga.getBest().getTotalPenalty();
+				offer(ga.getBest());
+				if(!ga.isDone()) {
+					pool.execute(this);	// give the workers to the other members
+					return;
+				}
+			} catch(RuntimeException e) {
+				System.out.println("Member " + configuration + " failed: " + e.getMessage());
+			}
+			synchronized(Portfolio.this) {
+				finished = true;
+				alive--;
+				Portfolio.this.notifyAll();
+			}
+		}
+	}
+
+	/*********************************************
+	* Setters and Getters
+	*********************************************/
+	public void setParameters(int popSize, int iter_max, double p_cross, double p_mut) {
+		this.popSize = popSize;
+		this.iter_max = iter_max;
+		this.p_cross = p_cross;
+		this.p_mut = p_mut;
+	}
+
+	public void setTimeBudget(long time_budget) {
+		this.time_budget = time_budget;
+	}
+
+	public void setTargetPenalty(int target_penalty) {
+		this.target_penalty = target_penalty;
+	}
+
+	public void setRound(long round) {
+		this.round = round;
+	}
+
+	public Individual getIncumbent() {
+		return incumbent.get();
+	}
+
+	// elapsed time of the run in milliseconds
+	public long getElapsedTime() {
+		return (System.nanoTime() - startTime) / 1000000L;
+	}
+}
@@ -0,0 +1,172 @@
+/***********************************************************************************************************
+
+	RollingHorizon solves long planning horizons (months) in overlapping windows of a few weeks.
+
+	Searching a whole 6-12 month roster at once makes the search space and the evaluation of every
+	individual too big. Instead, the genetic algorithm solves a window of the horizon (4 weeks by default),
+	the first days of the window (2 weeks by default) are committed to the roster, and the next window
+	starts right after the committed days, so that the last days of a window are solved again with the
+	days that follow them.
+
+	The days already committed are not forgotten: the state of every employee at the end of the committed
+	days (consecutive shifts and night shifts, working hours, shifts of the last two days, worked weekends)
+	is passed to the evaluation of the next window (see Fitness.History), so that the committed roster is
+	evaluated as if the whole horizon had been evaluated at once. Every window is seeded with the
+	uncommitted days of the best schedule of the previous window.
+
+	The solve time grows linearly with the horizon, one window every committed part.
+
+	Usage: java RollingHorizon [-f <instance>] [-w <windowDays>] [-c <commitDays>] [-i <popSize> <iterMax> <pCross> <pMut>]
+							   [-t <secondsPerWindow>] [-s <stagnationGenerations>] [-m <random|shift|guided>] [-o <scheduleFile>]
+
+	Date:	 2026
+***********************************************************************************************************/
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public class RollingHorizon {
+
+	private final Instance instance;
+	private final int window;		// days solved at a time
+	private final int commit;		// days of a window committed to the roster
+
+	// parameters of the genetic algorithm of every window
+	private int popSize = 1000;
+	private int iter_max = 200;
+	private double p_cross = 0.85;
+	private double p_mut = 0.015;
+	private double time_budget = 0;	// seconds per window, 0 to stop after iter_max generations
+	private int stagnation_limit = 0;
+	private GeneticAlgorithm.Mutation mutation = GeneticAlgorithm.Mutation.RANDOM;
+
+	private long elapsed;			// duration of the solve in milliseconds
+
+	/**
+	 * @param instance the instance of the whole horizon
+	 * @param window the number of days solved at a time
+	 * @param commit the number of days committed after every window, at most the window
+	 */
+	public RollingHorizon(Instance instance, int window, int commit) {
+
+		if(commit < 2 || commit > window)
+			throw new IllegalArgumentException("The committed days must be at least 2 and at most the window");
+		this.instance = instance;
+		this.window = window;
+		this.commit = commit;
+	}
+
+	public static void main(String[] args) throws IOException {
+
+		Instance instance = Instance.WHPP;
+		int window = 28;
+		int commit = 14;
+		String output_file = null;
+		for(int a = 0; a < args.length; a++) {
+			if(args[a].equals("-f"))
+				instance = Instance.read(Path.of(args[++a]));
+			else if(args[a].equals("-w"))
+				window = Integer.parseInt(args[++a]);
+			else if(args[a].equals("-c"))
+				commit = Integer.parseInt(args[++a]);
+			else if(args[a].equals("-o"))
+				output_file = args[++a];
+		}
+
+		RollingHorizon solver = new RollingHorizon(instance, window, commit);
+		for(int a = 0; a < args.length; a++) {
+			if(args[a].equals("-i")) {
+				solver.popSize = Integer.parseInt(args[++a]);
+				solver.iter_max = Integer.parseInt(args[++a]);
+				solver.p_cross = Double.parseDouble(args[++a]);
+				solver.p_mut = Double.parseDouble(args[++a]);
+			} else if(args[a].equals("-t"))
+				solver.time_budget = Double.parseDouble(args[++a]);
+			else if(args[a].equals("-s"))
+				solver.stagnation_limit = Integer.parseInt(args[++a]);
+			else if(args[a].equals("-m"))
+				solver.mutation = GeneticAlgorithm.Mutation.valueOf(args[++a].toUpperCase());
+		}
+
+		System.out.println("Instance: " + instance.getName() + " (" + instance.getEmployees() + " employees, " + instance.getDays()
+							+ " days) in windows of " + window + " days, committing " + commit + " days");
+		Individual roster = solver.solve();
+		System.out.println("Total penalty: " + roster.getTotalPenalty());
+		System.out.println("Elapsed Time: " + solver.getElapsedTime() + " ms");
+		if(output_file != null)
+			roster.writeSchedule(Path.of(output_file), "instance " + instance.getName(), "penalty " + roster.getTotalPenalty());
+	}
+
+	/**
+	 * Solves the horizon window by window.
+	 *
+	 * @return the roster of the whole horizon, evaluated over the whole horizon
+	 */
+	public Individual solve() {
+
+		long startTime = System.nanoTime();
+		Individual roster = new Individual(instance);
+		Fitness.History history = new Fitness.History(instance.getEmployees());
+		Individual previous = null;	// best schedule of the previous window
+		int previous_from = 0;
+
+		for(int from = 0; from < instance.getDays(); from += commit) {
+			int days = Math.min(window, instance.getDays() - from);
+			Instance part = instance.window(from, days);
+
+			GeneticAlgorithm ga = new GeneticAlgorithm(part, popSize, iter_max, p_cross, p_mut);
+			ga.setMutation(mutation);
+			ga.setTimeBudget((long) (time_budget * 1000));
+			if(stagnation_limit > 0) {
+				ga.setStagnationLimit(stagnation_limit);
+				ga.setDiversityFloor(0.05);
+			}
+			ga.setHistory(history);
+			if(previous != null)
+				ga.setSeed(this.continuation(previous, from - previous_from, part));
+			Individual best = ga.run();
+
+			// commit the first days of the window, or all of them at the end of the horizon
+			boolean last = from + days == instance.getDays();
+			int committed = last ? days : commit;
+			for(int j = 0; j < committed; j++)
+				roster.setDay(from + j, best.getDay(j).clone());
+			history = history.advance(best.getGenes(), committed, part);
+
+			System.out.println("Days " + (from+1) + "-" + (from+days) + ": window penalty " + best.getTotalPenalty()
+								+ ", " + ga.getGenerations() + " generations, days " + (from+1) + "-" + (from+committed) + " committed");
+			previous = best;
+			previous_from = from;
+			if(last)
+				break;
+		}
+
+		new Fitness(instance).calc_Fitness(roster);
+		elapsed = (System.nanoTime() - startTime) / 1000000L;
+		return roster;
+	}
+
+	/**
+	 * Creates the seed of a window from the best schedule of the previous window: the days of the
+	 * previous window that were not committed, followed by random days (meeting the demand).
+	 *
+	 * @param previous the best schedule of the previous window
+	 * @param offset the first day of the new window in the previous window
+	 * @param part the instance of the new window
+	 */
+	private Individual continuation(Individual previous, int offset, Instance part) {
+
+		Individual seed = new Individual(part);
+		int overlap = Math.min(previous.getInstance().getDays() - offset, part.getDays());
+		for(int j = 0; j < overlap; j++)
+			seed.setDay(j, previous.getDay(offset + j).clone());
+		for(int j = overlap; j < part.getDays(); j++)
+			seed.createGene(seed, j);
+		return seed;
+	}
+
+	// elapsed time of the last solve in milliseconds
+	public long getElapsedTime() {
+		return elapsed;
+	}
+}
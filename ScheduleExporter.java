@@ -0,0 +1,253 @@
+/***********************************************************************************************************
+
+	ScheduleExporter writes schedules (the best schedule, or the elite of a population, the best first)
+	for other systems to read, with the penalty of every employee split by soft constraint (see
+	Fitness.calc_Breakdown()).
+
+	The schedules are written through a fixed buffer to a channel, one employee after the other: the
+	penalties of an employee are calculated when it is written, and numbers are written as bytes into the
+	buffer, so exporting a roster takes the same memory whatever its size. Three formats are written,
+	chosen by the extension of the file:
+
+	- CSV (.csv): a header line, then one line per employee and schedule: the schedule (0 for the best),
+	  the employee (from 1), its penalty, its penalty for every entry of the breakdown, and its shift on
+	  every day (0: off, 1: morning, 2: afternoon, 3: night).
+	- JSON (.json): the instance, the names of the breakdown and the schedules, each with its penalty and
+	  its employees, each with its penalty, breakdown and shifts.
+	- Binary (.bin), big-endian: the int 0x57485053 ("WHPS"), the version, the numbers of employees, days,
+	  schedules and breakdown entries, the start day, and the name of every entry (its length as a byte,
+	  then its ASCII characters). Then, for every schedule, its penalty as an int and, for every employee,
+	  its shifts packed 4 days per byte (day j in bits 2*(j%4) of byte j/4), its penalty and its breakdown
+	  as ints.
+
+	Date:	 2026
+***********************************************************************************************************/
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class ScheduleExporter {
+
+	public enum Format { CSV, JSON, BIN }
+
+	// first int and version of the binary format
+	public static final int MAGIC = 0x57485053;
+	public static final int VERSION = 1;
+	// size of the buffer written to the channel
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	private final Fitness fit;
+	private final String[] breakdown;
+	private final int[] penalties;		// penalties of the employee being written
+	private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+	private final byte[] digits = new byte[20];
+	private WritableByteChannel channel;
+
+	/**
+	 * Creates an exporter of the schedules evaluated by a fitness.
+	 *
+	 * @param fit the fitness that evaluated the schedules, with the same soft constraints, history and
+	 *        reference schedule, to calculate the penalties of the employees
+	 */
+	public ScheduleExporter(Fitness fit) {
+		this.fit = fit;
+		this.breakdown = fit.getBreakdown();
+		this.penalties = new int[breakdown.length];
+	}
+
+	// Format of an export file from its extension, CSV by default
+	public static Format format(Path file) {
+		String name = file.getFileName().toString();
+		if(name.endsWith(".json"))
+			return Format.JSON;
+		if(name.endsWith(".bin"))
+			return Format.BIN;
+		return Format.CSV;
+	}
+
+	/**
+	 * Writes schedules to a file, in the format given by its extension.
+	 *
+	 * @param file the file to write
+	 * @param schedules the schedules of one instance, the best first
+	 * @throws IOException if the file cannot be written
+	 */
+	public void export(Path file, Individual... schedules) throws IOException {
+
+		try(FileChannel out = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+												StandardOpenOption.TRUNCATE_EXISTING)) {
+			this.export(out, format(file), schedules);
+		}
+	}
+
+	// Write schedules to an open channel, which is left open
+	public void export(WritableByteChannel channel, Format format, Individual... schedules) throws IOException {
+
+		if(schedules.length == 0)
+			throw new IllegalArgumentException("No schedule to export");
+		this.channel = channel;
+		buffer.clear();
+		switch(format) {
+			case CSV: this.csv(schedules); break;
+			case JSON: this.json(schedules); break;
+			case BIN: this.bin(schedules); break;
+		}
+		this.flush();
+		this.channel = null;
+	}
+
+	private void csv(Individual[] schedules) throws IOException {
+
+		Instance instance = schedules[0].getInstance();
+		this.ascii("schedule,employee,penalty");
+		for(String name : breakdown)
+			this.put(',').ascii(name);
+		for(int j = 0; j < instance.getDays(); j++)
+			this.ascii(",day").number(j + 1);
+		this.put('\n');
+
+		for(int s = 0; s < schedules.length; s++) {
+			int[][] genes = schedules[s].getGenes();
+			for(int i = 0; i < instance.getEmployees(); i++) {
+				int penalty = fit.calc_Breakdown(genes, i, penalties);
+				this.number(s).put(',').number(i + 1).put(',').number(penalty);
+				for(int penalty_k : penalties)
+					this.put(',').number(penalty_k);
+				for(int j = 0; j < genes.length; j++)
+					this.put(',').put((char) ('0' + genes[j][i]));
+				this.put('\n');
+			}
+		}
+	}
+
+	private void json(Individual[] schedules) throws IOException {
+
+		Instance instance = schedules[0].getInstance();
+		this.ascii("{\"instance\":").string(instance.getName())
+			.ascii(",\"employees\":").number(instance.getEmployees())
+			.ascii(",\"days\":").number(instance.getDays())
+			.ascii(",\"startDay\":").number(instance.getStartDay())
+			.ascii(",\"breakdown\":[");
+		for(int k = 0; k < breakdown.length; k++)
+			this.ascii(k > 0 ? "," : "").string(breakdown[k]);
+		this.ascii("],\"schedules\":[");
+
+		for(int s = 0; s < schedules.length; s++) {
+			int[][] genes = schedules[s].getGenes();
+			this.ascii(s > 0 ? ",\n" : "\n").ascii("{\"penalty\":").number(schedules[s].getTotalPenalty())
+				.ascii(",\"feasible\":").ascii(String.valueOf(schedules[s].isFeasible())).ascii(",\"employees\":[");
+			for(int i = 0; i < instance.getEmployees(); i++) {
+				int penalty = fit.calc_Breakdown(genes, i, penalties);
+				this.ascii(i > 0 ? ",\n" : "\n").ascii("{\"employee\":").number(i + 1)
+					.ascii(",\"penalty\":").number(penalty).ascii(",\"breakdown\":[");
+				for(int k = 0; k < penalties.length; k++)
+					this.ascii(k > 0 ? "," : "").number(penalties[k]);
+				this.ascii("],\"shifts\":[");
+				for(int j = 0; j < genes.length; j++)
+					this.ascii(j > 0 ? "," : "").put((char) ('0' + genes[j][i]));
+				this.ascii("]}");
+			}
+			this.ascii("]}");
+		}
+		this.ascii("]}\n");
+	}
+
+	private void bin(Individual[] schedules) throws IOException {
+
+		Instance instance = schedules[0].getInstance();
+		this.room(28);
+		buffer.putInt(MAGIC).putInt(VERSION).putInt(instance.getEmployees()).putInt(instance.getDays())
+				.putInt(schedules.length).putInt(breakdown.length).putInt(instance.getStartDay());
+		for(String name : breakdown) {
+			this.room(1).buffer.put((byte) name.length());
+			this.ascii(name);
+		}
+
+		int packed = (instance.getDays() + 3) / 4;
+		for(Individual schedule : schedules) {
+			int[][] genes = schedule.getGenes();
+			this.room(4).buffer.putInt(schedule.getTotalPenalty());
+			for(int i = 0; i < instance.getEmployees(); i++) {
+				int penalty = fit.calc_Breakdown(genes, i, penalties);
+				this.room(packed + 4 * (1 + penalties.length));
+				for(int b = 0; b < packed; b++) {
+					int bits = 0;
+					for(int j = 4 * b; j < Math.min(4 * b + 4, genes.length); j++)
+						bits |= genes[j][i] << (2 * (j % 4));
+					buffer.put((byte) bits);
+				}
+				buffer.putInt(penalty);
+				for(int penalty_k : penalties)
+					buffer.putInt(penalty_k);
+			}
+		}
+	}
+
+	/*********************************************
+	* Buffered output
+	*********************************************/
+
+	// Make room for n bytes in the buffer, writing it to the channel if needed
+	private ScheduleExporter room(int n) throws IOException {
+		if(buffer.remaining() < n)
+			this.flush();
+		return this;
+	}
+
+	private void flush() throws IOException {
+		buffer.flip();
+		while(buffer.hasRemaining())
+			channel.write(buffer);
+		buffer.clear();
+	}
+
+	private ScheduleExporter put(char c) throws IOException {
+		this.room(1).buffer.put((byte) c);
+		return this;
+	}
+
+	// Characters of a string known to be ASCII (keys, names of the breakdown)
+	private ScheduleExporter ascii(String s) throws IOException {
+		for(int c = 0; c < s.length(); c++)
+			this.put(s.charAt(c));
+		return this;
+	}
+
+	// Digits of a number, without creating a string
+	private ScheduleExporter number(long value) throws IOException {
+
+		this.room(digits.length);
+		if(value < 0) {
+			buffer.put((byte) '-');
+			value = -value;
+		}
+		int n = 0;
+		do {
+			digits[n++] = (byte) ('0' + value % 10);
+			value /= 10;
+		} while(value > 0);
+		while(n > 0)
+			buffer.put(digits[--n]);
+		return this;
+	}
+
+	// A JSON string, quoted and escaped
+	private ScheduleExporter string(String s) throws IOException {
+
+		this.put('"');
+		for(byte b : s.getBytes(StandardCharsets.UTF_8)) {
+			if(b == '"' || b == '\\')
+				this.put('\\').put((char) b);
+			else if(b >= 0 && b < 0x20)
+				this.ascii(String.format("\\u%04x", b));
+			else
+				this.room(1).buffer.put(b);
+		}
+		return this.put('"');
+	}
+}
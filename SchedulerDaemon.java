@@ -0,0 +1,255 @@
+/***********************************************************************************************************
+
+	SchedulerDaemon is a long-running solver process that accepts scheduling jobs on a local socket.
+
+	Solving inside one process avoids paying the JVM start-up and JIT warm-up on every run, and instances
+	read from files are cached and shared by all the jobs that use them.
+
+	Every connection is served by its own lightweight thread (a virtual thread when the runtime supports
+	them), while the jobs run on a bounded pool of worker threads, one per CPU by default, so that the
+	number of concurrent solves never exceeds the cores. Jobs beyond that wait in the queue of the pool.
+
+	The protocol is line based. A client sends commands and receives the replies and the progress of its
+	jobs on the same connection:
+
+		SOLVE [instance=<file>] [pop=<n>] [iter=<n>] [pc=<p>] [pm=<p>] [time=<sec>] [target=<n>]
+			  [stagnation=<n>] [adaptive=0|1|2]
+										-> ACCEPTED <id>
+										-> PROGRESS <id> <generation> <best penalty> (on every improvement)
+										-> DONE <id> <penalty> <generations> <msec>
+										-> ROW <id> <employee> <shifts of the employee>... (one per employee)
+										-> END <id>
+		CANCEL <id>						-> CANCELLING <id> (the job then ends with DONE as above)
+		STATUS							-> STATUS <running> <queued>
+		QUIT							-> closes the connection and cancels its jobs
+
+	A job without an instance solves the WHPP problem. Errors are reported as ERROR <message>.
+
+	Usage: java SchedulerDaemon [port] [workers]
+
+	Date:	 2026
+***********************************************************************************************************/
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class SchedulerDaemon {
+
+	private final ThreadPoolExecutor workers;		// bounded pool of CPU workers
+	private final ExecutorService connections;		// one lightweight thread per connection
+	private final Map<String, Instance> instances;	// instances shared by all jobs
+	private final Map<Integer, GeneticAlgorithm> jobs;	// jobs queued or running
+	private final AtomicInteger next_id;
+
+	public SchedulerDaemon(int threads) {
+
+		this.workers = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>());
+		this.connections = connectionExecutor();
+		this.instances = new ConcurrentHashMap<>();
+		this.jobs = new ConcurrentHashMap<>();
+		this.next_id = new AtomicInteger(1);
+	}
+
+	public static void main(String[] args) throws IOException {
+
+		int port = 7070;
+		int threads = Runtime.getRuntime().availableProcessors();
+		if(args.length > 0)
+			port = Integer.parseInt(args[0]);
+		if(args.length > 1)
+			threads = Integer.parseInt(args[1]);
+
+		new SchedulerDaemon(threads).serve(port);
+	}
+
+	/**
+	 * Accepts connections on the loopback interface until the process is stopped.
+	 *
+	 * @param port the local port to listen on
+	 * @throws IOException if the port cannot be bound
+	 */
+	public void serve(int port) throws IOException {
+
+		try(ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+			System.out.println("Scheduler daemon listening on " + server.getLocalSocketAddress()
+								+ " with " + workers.getCorePoolSize() + " workers");
+			while(true) {
+				Socket socket = server.accept();
+				connections.execute(() -> this.handle(socket));
+			}
+		}
+	}
+
+	// Serve the commands of one connection
+	private void handle(Socket socket) {
+
+		Map<Integer, GeneticAlgorithm> own = new ConcurrentHashMap<>();	// jobs of this connection
+		try(socket;
+			BufferedReader in = new BufferedReader(new InputStreamReader(socket.getInputStream()));
+			PrintWriter out = new PrintWriter(socket.getOutputStream(), true)) {
+
+			String line;
+			while((line = in.readLine()) != null) {
+				String[] tokens = line.trim().split("\\s+");
+				try {
+					switch(tokens[0].toUpperCase()) {
+						case "SOLVE": this.submit(tokens, out, own); break;
+						case "CANCEL": this.cancel(Integer.parseInt(tokens[1]), out); break;
+						case "STATUS":
+							out.println("STATUS " + workers.getActiveCount() + " " + workers.getQueue().size());
+							break;
+						case "QUIT": return;
+						case "": break;
+						default: out.println("ERROR unknown command " + tokens[0]);
+					}
+				} catch(RuntimeException | IOException e) {
+					out.println("ERROR " + e.getMessage());
+				}
+			}
+		} catch(IOException e) {
+			// connection lost - nobody is left to receive the results
+		} finally {
+			for(GeneticAlgorithm ga : own.values())
+				ga.cancel();
+		}
+	}
+
+	/**
+	 * Creates a job from the parameters of a SOLVE command and queues it on the workers.
+	 * Progress and the final schedule are written to the connection that submitted the job.
+	 */
+	private void submit(String[] tokens, PrintWriter out, Map<Integer, GeneticAlgorithm> own) throws IOException {
+
+		Instance instance = Instance.WHPP;
+		int popSize = 1000;
+		int iter_max = 200;
+		double p_cross = 0.85;
+		double p_mut = 0.015;
+		double time_budget = 0;
+		int target_penalty = 0;
+		int stagnation_limit = 0;
+		int adapt = 0;
+
+		for(int t = 1; t < tokens.length; t++) {
+			int eq = tokens[t].indexOf('=');
+			if(eq < 0)
+				throw new IllegalArgumentException("expected key=value, found " + tokens[t]);
+			String key = tokens[t].substring(0, eq);
+			String value = tokens[t].substring(eq+1);
+			switch(key) {
+				case "instance": instance = this.instance(value); break;
+				case "pop": popSize = Integer.parseInt(value); break;
+				case "iter": iter_max = Integer.parseInt(value); break;
+				case "pc": p_cross = Double.parseDouble(value); break;
+				case "pm": p_mut = Double.parseDouble(value); break;
+				case "time": time_budget = Double.parseDouble(value); break;
+				case "target": target_penalty = Integer.parseInt(value); break;
+				case "stagnation": stagnation_limit = Integer.parseInt(value); break;
+				case "adaptive": adapt = Integer.parseInt(value); break;
+				default: throw new IllegalArgumentException("unknown parameter " + key);
+			}
+		}
+
+		GeneticAlgorithm ga = new GeneticAlgorithm(instance, popSize, iter_max, p_cross, p_mut);
+		// the jobs already share the workers, do not flood the common pool with parallel evaluation
+		ga.setEvaluation(GeneticAlgorithm.Evaluation.SERIAL);
+		if(adapt > 0)
+			ga.setAdaptiveRates(new AdaptiveRates(p_cross, p_mut, adapt == 2));
+		ga.setTimeBudget((long) (time_budget * 1000));
+		ga.setTargetPenalty(target_penalty);
+		if(stagnation_limit > 0) {
+			ga.setStagnationLimit(stagnation_limit);
+			ga.setDiversityFloor(0.05);
+		}
+
+		int id = next_id.getAndIncrement();
+		// stream the best-so-far penalty on every improvement
+		ga.setListener(new GeneticAlgorithm.GenerationListener() {
+			private int last = Integer.MAX_VALUE;
+
+			@Override
+			public void onGeneration(int generation, Population pop, Individual best) {
+				if(best.getTotalPenalty() < last) {
+					last = best.getTotalPenalty();
+					out.println("PROGRESS " + id + " " + generation + " " + last);
+				}
+			}
+		});
+
+		jobs.put(id, ga);
+		own.put(id, ga);
+		out.println("ACCEPTED " + id);
+
+		workers.execute(() -> {
+			try {
+				Individual best = ga.run();
+				// one write per line, so that lines of concurrent jobs do not interleave
+				out.println("DONE " + id + " " + best.getTotalPenalty() + " " + ga.getGenerations() + " " + ga.getElapsedTime());
+				int[][] genes = best.getSchedule();
+				for(int i = 0; i < genes.length; i++) {
+					StringBuilder row = new StringBuilder("ROW ").append(id).append(' ').append(i+1);
+					for(int j = 0; j < genes[i].length; j++)
+						row.append(' ').append(genes[i][j]);
+					out.println(row);
+				}
+				out.println("END " + id);
+			} catch(RuntimeException e) {
+				out.println("ERROR job " + id + ": " + e.getMessage());
+			} finally {
+				jobs.remove(id);
+				own.remove(id);
+			}
+		});
+	}
+
+	// Cancel a queued or running job of any connection
+	private void cancel(int id, PrintWriter out) {
+
+		GeneticAlgorithm ga = jobs.get(id);
+		if(ga == null) {
+			out.println("ERROR unknown job " + id);
+			return;
+		}
+		ga.cancel();
+		out.println("CANCELLING " + id);
+	}
+
+	// Instances are read once and shared by every job that names the same file
+	private Instance instance(String file) throws IOException {
+
+		Path path = Path.of(file).toAbsolutePath().normalize();
+		Instance instance = instances.get(path.toString());
+		if(instance == null) {
+			instance = Instance.read(path);
+			instances.putIfAbsent(path.toString(), instance);
+		}
+		return instance;
+	}
+
+	/**
+	 * Returns a virtual-thread-per-task executor when the runtime provides one (JDK 21 or later),
+	 * otherwise a cached pool of platform threads.
+	 */
+	private static ExecutorService connectionExecutor() {
+
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch(ReflectiveOperationException e) {
+			return Executors.newCachedThreadPool();
+		}
+	}
+}
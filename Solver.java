@@ -0,0 +1,347 @@
+/***********************************************************************************************************
+
+	Solver runs the genetic algorithm inside another application: the instance, operators, parameters and
+	budget are given to a Builder, and the solve returns a CompletableFuture of the best schedule instead
+	of printing it.
+
+		CompletableFuture<Individual> best = new Solver.Builder(instance)
+													.population(500).timeBudget(10000)
+													.listener(p -> log(p.generation, p.best_penalty))
+													.solve();
+
+	A solve runs on an executor in time slices of a few generations: after every slice it is queued again
+	behind the other work of the executor, so any number of solves share one executor fairly when its
+	tasks wait in one FIFO queue, as in a ThreadPoolExecutor. A fork-join pool is not fair here: a task
+	queued by one of its workers goes to that worker's own queue and runs next, so the solves it runs
+	mostly run one after the other. Every solve owns its genetic algorithm and shares nothing with the
+	others, and each generation is evaluated on the thread of the solve by default, so concurrent solves
+	do not compete for a second pool. Without an executor the solves share a pool with one worker per CPU.
+
+	The listener receives a snapshot of the progress after every generation, on the executor and never
+	on the thread of the solve: a snapshot is handed over and the solve goes on, and when the listener is
+	slower than the generations only the latest snapshot is delivered. Snapshots are delivered one at a
+	time, in order; the last one may arrive after the future is complete.
+
+	A solve is cancelled cooperatively, checked inside the generation loop: stop() ends it with the best
+	schedule found so far, and cancelling the future ends it without a result.
+
+	Date:	 2026
+***********************************************************************************************************/
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class Solver {
+
+	// wall-clock length of one time slice of a solve in milliseconds
+	private static final long SLICE = 50;
+
+	/**
+	 * Progress of a solve after a generation. The best schedule is a copy, safe to keep and read.
+	 */
+	public static class Progress {
+
+		public final int generation;
+		public final int best_penalty;
+		public final double average_penalty;
+		public final double entropy;		// gene entropy of the population, see Diversity
+		public final int restarts;
+		public final long elapsed;			// milliseconds since the solve started
+		public final double gap;			// optimality gap of the best penalty, -1 if there is no lower bound
+		public final Individual best;
+
+		Progress(GeneticAlgorithm ga, Population pop, Individual best) {
+
+			double sum = 0;
+			for(int i = 0; i < pop.getPopulationSize(); i++)
+				sum += pop.getIndividual(i).getTotalPenalty();
+			this.generation = ga.getGenerations();
+			this.best_penalty = best.getTotalPenalty();
+			this.average_penalty = sum / pop.getPopulationSize();
+			this.entropy = ga.getDiversity().entropy();
+			this.restarts = ga.getRestarts();
+			this.elapsed = ga.getElapsedTime();
+			this.gap = (ga.getLowerBound() == null) ? -1 : ga.getLowerBound().gap(best_penalty);
+			this.best = best.copy();
+		}
+	}
+
+	public interface ProgressListener {
+
+		void onProgress(Progress progress);
+	}
+
+	/**
+	 * Parameters of a solve. Unset parameters take the defaults of GA_main.
+	 */
+	public static class Builder {
+
+		private final Instance instance;
+		private int popSize = 1000;
+		private int iter_max = 200;
+		private double p_cross = 0.85;
+		private double p_mut = 0.015;
+		private GeneticAlgorithm.Crossover crossover = GeneticAlgorithm.Crossover.UNIFORM;
+		private GeneticAlgorithm.Selection selection = GeneticAlgorithm.Selection.RANK;
+		private GeneticAlgorithm.Mutation mutation = GeneticAlgorithm.Mutation.RANDOM;
+		private GeneticAlgorithm.Evaluation evaluation = GeneticAlgorithm.Evaluation.SERIAL;
+		private int adapt = 0;
+		private ConstraintModel model;
+		private Individual seed;
+		private Long random_seed;
+		private long time_budget = 0;
+		private int target_penalty = 0;
+		private int stagnation_limit = 0;
+		private Executor executor;
+		private ProgressListener listener;
+
+		public Builder(Instance instance) {
+			this.instance = instance;
+		}
+
+		public Builder population(int popSize) {
+			this.popSize = popSize;
+			return this;
+		}
+
+		// maximum number of generations, ignored with a time budget
+		public Builder iterations(int iter_max) {
+			this.iter_max = iter_max;
+			return this;
+		}
+
+		public Builder rates(double p_cross, double p_mut) {
+			this.p_cross = p_cross;
+			this.p_mut = p_mut;
+			return this;
+		}
+
+		public Builder crossover(GeneticAlgorithm.Crossover crossover) {
+			this.crossover = crossover;
+			return this;
+		}
+
+		public Builder selection(GeneticAlgorithm.Selection selection) {
+			this.selection = selection;
+			return this;
+		}
+
+		public Builder mutation(GeneticAlgorithm.Mutation mutation) {
+			this.mutation = mutation;
+			return this;
+		}
+
+		// SERIAL by default: the parallelism comes from running several solves
+		public Builder evaluation(GeneticAlgorithm.Evaluation evaluation) {
+			this.evaluation = evaluation;
+			return this;
+		}
+
+		// 0 fixed rates, 1 generation-level, 2 generation-level and per-individual (see AdaptiveRates)
+		public Builder adaptiveRates(int adapt) {
+			this.adapt = adapt;
+			return this;
+		}
+
+		public Builder constraintModel(ConstraintModel model) {
+			this.model = model;
+			return this;
+		}
+
+		// a schedule to include in the initial population
+		public Builder seed(Individual seed) {
+			this.seed = seed;
+			return this;
+		}
+
+		public Builder randomSeed(long random_seed) {
+			this.random_seed = random_seed;
+			return this;
+		}
+
+		// wall-clock budget in milliseconds, 0 to stop after the maximum number of generations
+		public Builder timeBudget(long time_budget) {
+			this.time_budget = time_budget;
+			return this;
+		}
+
+		public Builder targetPenalty(int target_penalty) {
+			this.target_penalty = target_penalty;
+			return this;
+		}
+
+		// generations without improvement before a partial restart, 0 for no restarts
+		public Builder stagnationLimit(int stagnation_limit) {
+			this.stagnation_limit = stagnation_limit;
+			return this;
+		}
+
+		// shared fairly by the solves if its tasks wait in one FIFO queue, see above
+		public Builder executor(Executor executor) {
+			this.executor = executor;
+			return this;
+		}
+
+		public Builder listener(ProgressListener listener) {
+			this.listener = listener;
+			return this;
+		}
+
+		public Solver build() {
+			return new Solver(this);
+		}
+
+		// Build the solver and start it
+		public CompletableFuture<Individual> solve() {
+			return this.build().start();
+		}
+	}
+
+	private final GeneticAlgorithm ga;
+	private final Executor executor;
+	private final ProgressListener listener;
+	private final CompletableFuture<Individual> result = new CompletableFuture<>();
+	private final AtomicBoolean started = new AtomicBoolean();
+	private boolean initialised;
+
+	// latest snapshot not delivered yet, and whether a delivery is queued on the executor
+	private final AtomicReference<Progress> pending = new AtomicReference<>();
+	private final AtomicBoolean delivering = new AtomicBoolean();
+
+	private Solver(Builder b) {
+
+		this.ga = new GeneticAlgorithm(b.instance, b.popSize, b.iter_max, b.p_cross, b.p_mut);
+		ga.setCrossover(b.crossover);
+		ga.setSelection(b.selection);
+		ga.setMutation(b.mutation);
+		ga.setEvaluation(b.evaluation);
+		if(b.adapt > 0)
+			ga.setAdaptiveRates(new AdaptiveRates(b.p_cross, b.p_mut, b.adapt == 2));
+		ga.setConstraintModel(b.model);
+		ga.setSeed(b.seed);
+		if(b.random_seed != null)
+			ga.setRandomSeed(b.random_seed);
+		ga.setTimeBudget(b.time_budget);
+		ga.setTargetPenalty(b.target_penalty);
+		if(b.stagnation_limit > 0) {
+			ga.setStagnationLimit(b.stagnation_limit);
+			ga.setDiversityFloor(0.05);
+		}
+
+		this.executor = (b.executor != null) ? b.executor : Pool.SHARED;
+		this.listener = b.listener;
+		if(listener != null)
+			ga.setListener((generation, pop, best) -> this.publish(new Progress(ga, pop, best)));
+
+		// cancelling the future cancels the run
+		result.whenComplete((best, e) -> {
+			if(result.isCancelled())
+				ga.cancel();
+		});
+	}
+
+	/**
+	 * Starts the solve on the executor. A solver is started once.
+	 *
+	 * @return the future best schedule, completed when the run stops
+	 */
+	public CompletableFuture<Individual> start() {
+
+		if(!started.compareAndSet(false, true))
+			throw new IllegalStateException("The solver is already started");
+		executor.execute(this::slice);
+		return result;
+	}
+
+	/**
+	 * Requests the solve to stop. Safe to call from any thread; the future is completed with the best
+	 * schedule found so far within one check interval of the current generation.
+	 */
+	public void stop() {
+		ga.cancel();
+	}
+
+	public CompletableFuture<Individual> getResult() {
+		return result;
+	}
+
+	// the genetic algorithm of the solve, to read its state once the future is complete
+	public GeneticAlgorithm getGeneticAlgorithm() {
+		return ga;
+	}
+
+	// Run one time slice of generations, then queue the solve again or complete the future
+	private void slice() {
+
+		if(result.isDone())	// cancelled
+			return;
+		try {
+			long slice_end = System.nanoTime() + SLICE * 1000000L;
+			if(!initialised) {
+				if(ga.isCancelled()) {	// stopped before it started, there is no schedule
+					result.completeExceptionally(new CancellationException("Solve stopped before it started"));
+					return;
+				}
+				ga.init();
+				initialised = true;
+			}
+			while(!ga.isDone() && System.nanoTime() < slice_end)
+				ga.step();
+
+			if(!ga.isDone()) {
+				executor.execute(this::slice);	// give the executor to the other work
+				return;
+			}
+			result.complete(ga.getBest());
+		} catch(RuntimeException e) {
+			result.completeExceptionally(e);
+		}
+	}
+
+	// Hand a snapshot over to the listener, replacing the one not delivered yet
+	private void publish(Progress progress) {
+
+		pending.set(progress);
+		if(delivering.compareAndSet(false, true))
+			executor.execute(this::deliver);
+	}
+
+	// Deliver the latest snapshots until none is left; one delivery runs at a time
+	private void deliver() {
+
+		while(true) {
+			Progress progress = pending.getAndSet(null);
+			if(progress != null) {
+				try {
+					listener.onProgress(progress);
+				} catch(RuntimeException e) {
+					// a failing listener does not stop the solve
+				}
+				continue;
+			}
+			delivering.set(false);
+			// a snapshot published after the last read, whose publisher saw the delivery still running
+			if(pending.get() == null || !delivering.compareAndSet(false, true))
+				return;
+		}
+	}
+
+	// Pool of the solves started without an executor, created on first use
+	private static class Pool {
+
+		// one shared FIFO queue, so that a solve queued again waits behind the other solves
+		static final ThreadPoolExecutor SHARED = new ThreadPoolExecutor(Runtime.getRuntime().availableProcessors(),
+													Runtime.getRuntime().availableProcessors(), 0L, TimeUnit.MILLISECONDS,
+													new LinkedBlockingQueue<>(), task -> {
+														Thread thread = new Thread(task, "solver");
+														thread.setDaemon(true);	// does not keep the JVM running
+														return thread;
+													});
+	}
+}
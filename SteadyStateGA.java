@@ -0,0 +1,260 @@
+/***********************************************************************************************************
+
+	SteadyStateGA class is an asynchronous steady-state genetic algorithm without generation barrier.
+
+	A number of worker threads share one population. Each worker repeatedly selects two parents by
+	tournament, breeds and mutates a child, evaluates it and inserts it into the population in place of
+	a worse individual. Workers never wait for each other: the population is an array of slots that are
+	replaced with compare-and-set, and an insertion that loses the race against another worker is simply
+	retried on other slots. Tournament selection stands in for the rank selection of GeneticAlgorithm,
+	since the shared population is never sorted.
+
+	Individuals inserted in the population are never modified, so workers can read them without locks.
+
+	The run stops after a number of evaluations, at a wall-clock deadline, at a target penalty or at the
+	lower bound of the penalty (see LowerBound), or when cancelled. Throughput is reported in evaluations per second per worker.
+
+	Date:	 2026
+***********************************************************************************************************/
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class SteadyStateGA {
+
+	// individuals compared in every tournament, for selection and for replacement
+	private static final int TOURNAMENT = 3;
+	// insertion attempts of a child before it is dropped
+	private static final int INSERT_TRIES = 4;
+	// evaluations of a worker between two checks of the stopping criteria
+	private static final int CHECK_INTERVAL = 32;
+
+	private Instance instance;
+	private int popSize;
+	private long max_evaluations;
+	private double p_cross;
+	private double p_mut;
+	private int threads;
+
+	private long time_budget;		// wall-clock budget in milliseconds, 0 for none
+	private int target_penalty;
+	private int stop_penalty;		// the target penalty, or the lower bound of the penalty if higher
+	private ConstraintModel model;	// soft constraints of a rule file, null for the WHPP soft constraints
+
+	private AtomicReferenceArray<Individual> slots;	// the shared population
+	private AtomicReference<Individual> best;		// best individual found so far
+	private LongAdder evaluations;
+	private volatile boolean done;
+	private long startTime;
+	private long deadline;
+	private long elapsed;		// duration of the run in nanoseconds
+
+	/**
+	 * @param popSize the population size
+	 * @param max_evaluations the number of evaluations of the run (popSize * iterations for a generational run)
+	 * @param threads the number of worker threads
+	 */
+	public SteadyStateGA(Instance instance, int popSize, long max_evaluations, double p_cross, double p_mut, int threads) {
+
+		this.instance = instance;
+		this.popSize = popSize;
+		this.max_evaluations = max_evaluations;
+		this.p_cross = p_cross;
+		this.p_mut = p_mut;
+		this.threads = threads;
+		this.time_budget = 0;
+		this.target_penalty = 0;
+	}
+
+	/**
+	 * Runs the workers until one of the stopping criteria is met.
+	 *
+	 * @return the best individual found during the run
+	 * @throws InterruptedException if interrupted while waiting for the workers
+	 */
+	public Individual run() throws InterruptedException {
+
+		startTime = System.nanoTime();
+		deadline = startTime + time_budget * 1000000L;
+		evaluations = new LongAdder();
+		done = false;
+
+		// generate and evaluate the initial feasible population
+		Population pop = new Population(popSize, instance);
+		pop.InitialisePop();
+		Fitness fit = new Fitness(instance);
+		fit.setModel(model);
+		LowerBound lower_bound = fit.getLowerBound();
+		stop_penalty = (lower_bound == null) ? target_penalty : Math.max(target_penalty, lower_bound.getBound());
+		slots = new AtomicReferenceArray<>(popSize);
+		best = new AtomicReference<>(pop.getIndividual(0));
+		for(int i = 0; i < popSize; i++) {
+			fit.calc_Fitness(pop.getIndividual(i));
+			slots.set(i, pop.getIndividual(i));
+			this.offerBest(pop.getIndividual(i));
+		}
+		evaluations.add(popSize);
+		if(best.get().getTotalPenalty() <= stop_penalty)
+			done = true;
+
+		Thread[] workers = new Thread[threads];
+		for(int t = 0; t < threads; t++) {
+			workers[t] = new Thread(this::work, "steady-state-" + t);
+			workers[t].start();
+		}
+		for(Thread worker : workers)
+			worker.join();
+
+		elapsed = System.nanoTime() - startTime;
+		return best.get();
+	}
+
+	// Loop of a worker thread: select, breed, evaluate and insert until the run is done
+	private void work() {
+
+		Fitness fit = new Fitness(instance);
+		fit.setModel(model);
+		ThreadLocalRandom rand = ThreadLocalRandom.current();
+		int local = 0;	// evaluations not yet added to the shared counter
+
+		while(!done) {
+			Individual indiv1 = this.select(rand);
+			Individual indiv2 = this.select(rand);
+			Individual child = this.breed(indiv1, indiv2, rand);
+			fit.calc_Fitness(child);
+			this.insert(child, rand);
+			this.offerBest(child);
+
+			if(++local == CHECK_INTERVAL) {
+				evaluations.add(local);
+				local = 0;
+				this.checkDone();
+			}
+		}
+		evaluations.add(local);
+	}
+
+	// Tournament selection: the best of a few random slots
+	private Individual select(ThreadLocalRandom rand) {
+
+		Individual winner = slots.get(rand.nextInt(popSize));
+		for(int k = 1; k < TOURNAMENT; k++) {
+			Individual candidate = slots.get(rand.nextInt(popSize));
+			if(candidate.getTotalPenalty() < winner.getTotalPenalty())
+				winner = candidate;
+		}
+		return winner;
+	}
+
+	/**
+	 * Uniform crossover of the parents followed by random mutation, as in GeneticAlgorithm. The child
+	 * shares its days with its parents until it mutates them, replacing a day rather than writing it, so
+	 * the parents, which may be read by other workers at the same time, are never changed.
+	 */
+	private Individual breed(Individual id1, Individual id2, ThreadLocalRandom rand) {
+
+		Individual child;
+		if(rand.nextDouble() <= p_cross) {
+			child = new Individual(instance);
+			for(int j = 0; j < instance.getDays(); j++)
+				child.shareDay(j, rand.nextBoolean() ? id1 : id2);
+		} else	// copy of the fittest parent
+			child = (id1.getTotalPenalty() < id2.getTotalPenalty() ? id1 : id2).copy();
+
+		for(int j = 0; j < instance.getDays(); j++) {
+			if(rand.nextDouble() <= p_mut)
+				child.createGene(child, j, rand);
+		}
+		return child;
+	}
+
+	/**
+	 * Replaces the worst of a few random slots by the child if the child is better.
+	 * If another worker replaced that slot first, the compare-and-set fails and other slots are tried.
+	 */
+	private void insert(Individual child, ThreadLocalRandom rand) {
+
+		for(int tries = 0; tries < INSERT_TRIES; tries++) {
+			int worst = rand.nextInt(popSize);
+			Individual loser = slots.get(worst);
+			for(int k = 1; k < TOURNAMENT; k++) {
+				int slot = rand.nextInt(popSize);
+				Individual candidate = slots.get(slot);
+				if(candidate.getTotalPenalty() > loser.getTotalPenalty()) {
+					worst = slot;
+					loser = candidate;
+				}
+			}
+			if(child.getTotalPenalty() >= loser.getTotalPenalty())
+				return;	// child not better than the sampled individuals
+			if(slots.compareAndSet(worst, loser, child))
+				return;
+		}
+	}
+
+	// Publish the individual as best so far if it improves it
+	private void offerBest(Individual candidate) {
+
+		Individual current = best.get();
+		while(candidate.getTotalPenalty() < current.getTotalPenalty()) {
+			if(best.compareAndSet(current, candidate)) {
+				if(candidate.getTotalPenalty() <= stop_penalty)
+					done = true;
+				return;
+			}
+			current = best.get();
+		}
+	}
+
+	// Stopping criteria, checked by every worker once in a while
+	private void checkDone() {
+
+		if(done)
+			return;
+		if(evaluations.sum() >= max_evaluations
+				|| (time_budget > 0 && System.nanoTime() >= deadline))
+			done = true;
+	}
+
+	/**
+	 * Requests the run to stop. Safe to call from any thread.
+	 */
+	public void cancel() {
+		done = true;
+	}
+
+	/*********************************************
+	* Setters and Getters
+	*********************************************/
+	public void setTimeBudget(long time_budget) {
+		this.time_budget = time_budget;
+	}
+
+	public void setTargetPenalty(int target_penalty) {
+		this.target_penalty = target_penalty;
+	}
+
+	public void setConstraintModel(ConstraintModel model) {
+		this.model = model;
+	}
+
+	public Individual getBest() {
+		return best.get();
+	}
+
+	public long getEvaluations() {
+		return evaluations.sum();
+	}
+
+	// elapsed time of the run in milliseconds
+	public long getElapsedTime() {
+		return elapsed / 1000000L;
+	}
+
+	// evaluations per second per worker thread
+	public double getThroughput() {
+		return evaluations.sum() / (elapsed / 1e9) / threads;
+	}
+}
@@ -0,0 +1,366 @@
+/***********************************************************************************************************
+
+	Tuner searches the parameters of the genetic algorithm (population size, number of generations,
+	crossover and mutation rates) for an instance by statistical racing (F-race).
+
+	Every combination of the given parameter values is a candidate. The race proceeds in steps: at every
+	step each surviving candidate runs once with the same random seed (so that the candidates are compared
+	on the same random numbers), the runs of a step being spread over the cores. After a few steps, the
+	candidates are ranked in every step and compared with the Friedman test; when the test finds a
+	difference, the candidates whose rank sum is significantly worse than the best one (Conover's post-hoc
+	test) are dropped. The race ends when one candidate is left or after the maximum number of steps.
+
+	A run is better than another if it reaches the target penalty sooner, or, when neither reaches it,
+	if its final penalty is lower. The final penalty and the time-to-target of the runs of every candidate
+	are reported as quartiles.
+
+	All the runs share one JVM. A few warm-up runs are made first and discarded, so that the JIT warm-up
+	is not counted in the results.
+
+	Usage: java Tuner [-f <instance>] [-w <workers>] [-pop <sizes>] [-iter <iterations>] [-pc <rates>] [-pm <rates>]
+					  [-t <seconds>] [-p <targetPenalty>] [-n <maxSteps>] [-b <firstTestStep>] [-seed <seed>] [-o <runs.csv>]
+
+	Every list of values is separated by commas, e.g. -pm 0.01,0.015,0.05.
+
+	Date:	 2026
+***********************************************************************************************************/
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class Tuner {
+
+	// quantile of the standard normal distribution for the 0.05 level of the tests
+	private static final double Z_95 = 1.6449;
+	private static final double Z_975 = 1.9600;
+	// generations of every warm-up run
+	private static final int WARM_UP_GENERATIONS = 20;
+
+	/**
+	 * Parameters of a candidate and the results of its runs, one per step of the race.
+	 */
+	public static class Candidate {
+
+		final int popSize;
+		final int iter_max;
+		final double p_cross;
+		final double p_mut;
+		final List<int[]> runs = new ArrayList<>();	// {final penalty, time-to-target in ms or -1}
+		int dropped;	// step at which the candidate was dropped, 0 if still racing
+
+		Candidate(int popSize, int iter_max, double p_cross, double p_mut) {
+			this.popSize = popSize;
+			this.iter_max = iter_max;
+			this.p_cross = p_cross;
+			this.p_mut = p_mut;
+		}
+
+		@Override
+		public String toString() {
+			return "-i " + popSize + " " + iter_max + " " + p_cross + " " + p_mut;
+		}
+	}
+
+	private final Instance instance;
+	private final ExecutorService pool;
+	private final int workers;
+
+	private long time_budget = 0;		// wall-clock budget of every run in milliseconds, 0 for none
+	private int target_penalty = 0;
+	private int max_steps = 20;
+	private int first_test = 5;			// steps before the first test
+	private long seed = 1;				// seed of the first step, the next steps use the next seeds
+
+	public Tuner(Instance instance, int workers) {
+
+		this.instance = instance;
+		this.workers = workers;
+		this.pool = Executors.newFixedThreadPool(workers);
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException, ExecutionException {
+
+		Instance instance = Instance.WHPP;
+		int workers = Runtime.getRuntime().availableProcessors();
+		String pop = "1000", iter = "200", pc = "0.85", pm = "0.015";
+		String output = null;
+		List<String> options = new ArrayList<>();
+		for(int a = 0; a < args.length; a++) {
+			switch(args[a]) {
+				case "-f": instance = Instance.read(Path.of(args[++a])); break;
+				case "-w": workers = Integer.parseInt(args[++a]); break;
+				case "-pop": pop = args[++a]; break;
+				case "-iter": iter = args[++a]; break;
+				case "-pc": pc = args[++a]; break;
+				case "-pm": pm = args[++a]; break;
+				case "-o": output = args[++a]; break;
+				default: options.add(args[a]);
+			}
+		}
+
+		Tuner tuner = new Tuner(instance, workers);
+		for(int a = 0; a < options.size(); a++) {
+			if(options.get(a).equals("-t"))
+				tuner.time_budget = (long) (Double.parseDouble(options.get(++a)) * 1000);
+			else if(options.get(a).equals("-p"))
+				tuner.target_penalty = Integer.parseInt(options.get(++a));
+			else if(options.get(a).equals("-n"))
+				tuner.max_steps = Integer.parseInt(options.get(++a));
+			else if(options.get(a).equals("-b"))
+				tuner.first_test = Integer.parseInt(options.get(++a));
+			else if(options.get(a).equals("-seed"))
+				tuner.seed = Long.parseLong(options.get(++a));
+		}
+
+		List<Candidate> candidates = new ArrayList<>();
+		for(String n : pop.split(","))
+			for(String g : iter.split(","))
+				for(String c : pc.split(","))
+					for(String m : pm.split(","))
+						candidates.add(new Candidate(Integer.parseInt(n.trim()), Integer.parseInt(g.trim()),
+													 Double.parseDouble(c.trim()), Double.parseDouble(m.trim())));
+
+		if(candidates.size() < 2) {
+			System.out.println("Nothing to race: give at least two values of a parameter, e.g. -pm 0.01,0.015");
+			return;
+		}
+		tuner.race(candidates);
+		tuner.printReport(candidates);
+		if(output != null)
+			tuner.writeRuns(candidates, Path.of(output));
+	}
+
+	/**
+	 * Races the candidates until one is left or the maximum number of steps is reached.
+	 *
+	 * @param candidates the candidates, whose runs are recorded
+	 * @return the candidates still racing at the end, best first
+	 * @throws IllegalArgumentException if there are fewer than two candidates
+	 * @throws InterruptedException if interrupted while waiting for the runs
+	 * @throws ExecutionException if a run fails
+	 */
+	public List<Candidate> race(List<Candidate> candidates) throws InterruptedException, ExecutionException {
+
+		if(candidates.size() < 2)
+			throw new IllegalArgumentException("A race needs at least two candidates, found " + candidates.size());
+		this.warmUp(candidates.get(0));
+
+		List<Candidate> racing = new ArrayList<>(candidates);
+		for(int step = 1; step <= max_steps && racing.size() > 1; step++) {
+			// one run of every candidate with the same seed
+			List<Future<int[]>> runs = new ArrayList<>();
+			for(Candidate candidate : racing) {
+				long run_seed = seed + step - 1;
+				runs.add(pool.submit(() -> this.run(candidate, run_seed, candidate.iter_max)));
+			}
+			for(int c = 0; c < racing.size(); c++)
+				racing.get(c).runs.add(runs.get(c).get());
+
+			if(step >= first_test)
+				racing = this.eliminate(racing, step);
+			System.out.println("Step " + step + ": " + racing.size() + " candidates racing");
+		}
+		pool.shutdown();
+
+		double[] rank_sums = this.rankSums(racing);
+		Integer[] order = new Integer[racing.size()];
+		for(int c = 0; c < order.length; c++)
+			order[c] = c;
+		Arrays.sort(order, (c1, c2) -> Double.compare(rank_sums[c1], rank_sums[c2]));
+		List<Candidate> best = new ArrayList<>();
+		for(int c : order)
+			best.add(racing.get(c));
+		return best;
+	}
+
+	// Runs the genetic algorithm once and returns its final penalty and time-to-target
+	private int[] run(Candidate candidate, long run_seed, int iter_max) {
+
+		GeneticAlgorithm ga = new GeneticAlgorithm(instance, candidate.popSize, iter_max, candidate.p_cross, candidate.p_mut);
+		// the runs already share the cores, do not nest parallel evaluation
+		ga.setEvaluation(GeneticAlgorithm.Evaluation.SERIAL);
+		ga.setRandomSeed(run_seed);
+		ga.setTimeBudget(time_budget);
+		ga.setTargetPenalty(target_penalty);
+		Individual best = ga.run();
+		int penalty = best.getTotalPenalty();
+		return new int[] {penalty, penalty <= target_penalty ? (int) ga.getElapsedTime() : -1};
+	}
+
+	// Short runs on every worker, so that the measured runs are made with compiled code
+	private void warmUp(Candidate candidate) throws InterruptedException, ExecutionException {
+
+		List<Future<int[]>> runs = new ArrayList<>();
+		for(int w = 0; w < workers; w++) {
+			long run_seed = -1 - w;
+			runs.add(pool.submit(() -> this.run(candidate, run_seed, WARM_UP_GENERATIONS)));
+		}
+		for(Future<int[]> run : runs)
+			run.get();
+	}
+
+	/**
+	 * Friedman test of the racing candidates over all the steps so far, followed by the pairwise
+	 * comparison of every candidate with the best one when the test rejects the equality of the candidates.
+	 *
+	 * @return the candidates not significantly worse than the best one
+	 */
+	private List<Candidate> eliminate(List<Candidate> racing, int step) {
+
+		int k = racing.size();
+		int b = step;
+		double[][] ranks = this.ranks(racing);
+		double[] R = new double[k];
+		double A = 0;	// sum of the squared ranks
+		for(int s = 0; s < b; s++) {
+			for(int c = 0; c < k; c++) {
+				R[c] += ranks[s][c];
+				A += ranks[s][c] * ranks[s][c];
+			}
+		}
+		double C = b * k * (k+1) * (k+1) / 4.0;
+		double sumR2 = 0;
+		for(int c = 0; c < k; c++)
+			sumR2 += R[c] * R[c];
+		if(A - C <= 0)
+			return racing;	// every step ranked the candidates the same way with ties only
+
+		// Friedman statistic, chi-square distributed with k-1 degrees of freedom
+		double T = (k-1) * (sumR2 - b * C) / (A - C);
+		if(T <= chiSquare95(k-1))
+			return racing;
+
+		int best = 0;
+		for(int c = 1; c < k; c++) {
+			if(R[c] < R[best])
+				best = c;
+		}
+		int df = (b-1) * (k-1);
+		double difference = studentT975(df) * Math.sqrt(2 * b * (A - sumR2 / b) / df);
+
+		List<Candidate> survivors = new ArrayList<>();
+		for(int c = 0; c < k; c++) {
+			if(R[c] - R[best] > difference)
+				racing.get(c).dropped = step;
+			else
+				survivors.add(racing.get(c));
+		}
+		return survivors;
+	}
+
+	// Ranks of the candidates in every step, ties sharing the average rank
+	private double[][] ranks(List<Candidate> racing) {
+
+		int k = racing.size();
+		int b = racing.get(0).runs.size();
+		double[][] ranks = new double[b][k];
+		for(int s = 0; s < b; s++) {
+			long[] score = new long[k];
+			for(int c = 0; c < k; c++)
+				score[c] = score(racing.get(c).runs.get(s));
+			for(int c = 0; c < k; c++) {
+				int lower = 0, equal = 0;
+				for(int d = 0; d < k; d++) {
+					if(score[d] < score[c])
+						lower++;
+					else if(score[d] == score[c])
+						equal++;
+				}
+				ranks[s][c] = lower + (equal + 1) / 2.0;
+			}
+		}
+		return ranks;
+	}
+
+	private double[] rankSums(List<Candidate> racing) {
+
+		double[] R = new double[racing.size()];
+		if(racing.get(0).runs.isEmpty())
+			return R;
+		for(double[] step : this.ranks(racing)) {
+			for(int c = 0; c < R.length; c++)
+				R[c] += step[c];
+		}
+		return R;
+	}
+
+	// Lower is better: runs reaching the target by their time-to-target, the others after them by penalty
+	private static long score(int[] run) {
+		return run[1] >= 0 ? run[1] : Integer.MAX_VALUE + (long) run[0];
+	}
+
+	// 0.95 quantile of the chi-square distribution (Wilson-Hilferty approximation)
+	private static double chiSquare95(int df) {
+		double h = 2.0 / (9 * df);
+		return df * Math.pow(1 - h + Z_95 * Math.sqrt(h), 3);
+	}
+
+	// 0.975 quantile of Student's t distribution (Cornish-Fisher expansion)
+	private static double studentT975(int df) {
+		double z = Z_975;
+		return z + (z*z*z + z) / (4 * df) + (5*Math.pow(z, 5) + 16*z*z*z + 3*z) / (96.0 * df * df);
+	}
+
+	/**
+	 * Prints the distribution of the final penalty and of the time-to-target of every candidate,
+	 * the candidates still racing first. Candidates without runs are skipped.
+	 */
+	public void printReport(List<Candidate> candidates) {
+
+		System.out.println("\nCandidate                     Runs  Penalty min/q1/median/q3/max         Reached  Time-to-target ms q1/median/q3  Dropped");
+		List<Candidate> order = new ArrayList<>(candidates);
+		order.sort((c1, c2) -> c1.dropped == c2.dropped ? 0 : c1.dropped == 0 ? -1 : c2.dropped == 0 ? 1 : c2.dropped - c1.dropped);
+		for(Candidate candidate : order) {
+			int n = candidate.runs.size();
+			if(n == 0)
+				continue;
+			int[] penalty = new int[n];
+			int reached = 0;
+			int[] time = new int[n];
+			for(int r = 0; r < n; r++) {
+				penalty[r] = candidate.runs.get(r)[0];
+				if(candidate.runs.get(r)[1] >= 0)
+					time[reached++] = candidate.runs.get(r)[1];
+			}
+			Arrays.sort(penalty);
+			time = Arrays.copyOf(time, reached);
+			Arrays.sort(time);
+			String ttt = reached == 0 ? "-" : quantile(time, 0.25) + "/" + quantile(time, 0.5) + "/" + quantile(time, 0.75);
+			System.out.printf("%-29s %4d  %-36s %3d/%-3d  %-30s  %s%n", candidate, n,
+								penalty[0] + "/" + quantile(penalty, 0.25) + "/" + quantile(penalty, 0.5) + "/"
+								+ quantile(penalty, 0.75) + "/" + penalty[n-1],
+								reached, n, ttt, candidate.dropped == 0 ? "-" : "step " + candidate.dropped);
+		}
+	}
+
+	private static int quantile(int[] sorted, double q) {
+		return sorted[(int) Math.round(q * (sorted.length - 1))];
+	}
+
+	/**
+	 * Writes every run as a CSV line: the parameters of the candidate, the step, the final penalty
+	 * and the time-to-target in milliseconds (empty if the target was not reached).
+	 */
+	public void writeRuns(List<Candidate> candidates, Path file) throws IOException {
+
+		try(BufferedWriter out = Files.newBufferedWriter(file)) {
+			out.write("popSize,iterMax,pCross,pMut,step,penalty,timeToTarget\n");
+			for(Candidate c : candidates) {
+				for(int r = 0; r < c.runs.size(); r++) {
+					int[] run = c.runs.get(r);
+					out.write(c.popSize + "," + c.iter_max + "," + c.p_cross + "," + c.p_mut + "," + (r+1) + ","
+								+ run[0] + "," + (run[1] >= 0 ? String.valueOf(run[1]) : "") + "\n");
+				}
+			}
+		}
+	}
+}
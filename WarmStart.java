@@ -0,0 +1,297 @@
+/***********************************************************************************************************
+
+	WarmStart class re-solves an existing schedule after a small change, instead of starting the genetic
+	algorithm from a random population.
+
+	A change is either an employee who becomes unavailable for some days (e.g. sick leave), or a new
+	demand on some days, given by a new instance. The previous schedule is repaired to meet the new
+	hard constraints with as few changes as possible, and the initial population is seeded with the repaired
+	schedule, repaired perturbations of it and, when available, the repaired final population of the
+	previous run.
+
+	Mutation is restricted to the part of the schedule affected by the change: on days with a new demand,
+	the whole day may be rescheduled; on days where only some employees are unavailable, the employees
+	that covered for them swap shifts with the other available employees. The deviation from the previous
+	schedule may also be penalised.
+
+	Date:	 2026
+***********************************************************************************************************/
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+public class WarmStart {
+
+	// how a day of the schedule may be mutated
+	private static final int FROZEN = 0;
+	private static final int EMPLOYEES = 1;	// shifts are swapped between the available employees
+	private static final int DAY = 2;		// the whole day is rescheduled
+
+	// fraction of the initial population generated at random, to keep some diversity
+	private static final double RANDOM_RATE = 0.1;
+
+	private Instance instance;
+	private Individual previous;				// the previous schedule
+	private List<Individual> population;		// the final population of the previous run, may be empty
+	private boolean[][] unavailable;			// [employee][day] employee must be off
+	private int[] day_mode;						// mutation allowed on each day
+	private int deviation_weight;				// penalty for every shift changed from the previous schedule
+	private Random rand;						// the random number generator of the engine, see setRandom()
+
+	/**
+	 * Creates a warm start from the previous schedule. Days on which the schedule does not meet the
+	 * demand of the instance (a new demand) are marked as affected.
+	 *
+	 * @param instance the problem instance to solve, with the new demand
+	 * @param previous the previous schedule of the same employees and days
+	 */
+	public WarmStart(Instance instance, Individual previous) {
+
+		this.instance = instance;
+		this.previous = previous;
+		this.population = new ArrayList<>();
+		this.unavailable = new boolean[instance.getEmployees()][instance.getDays()];
+		this.day_mode = new int[instance.getDays()];
+		this.deviation_weight = 0;
+		this.rand = new Random();
+
+		int[][] genes = previous.getGenes();
+		for(int j = 0; j < instance.getDays(); j++) {
+			int[] count = new int[4];
+			for(int i = 0; i < genes[j].length; i++)
+				count[genes[j][i]]++;
+			for(int s = 0; s < 4; s++) {
+				if(count[s] != instance.getDemand(s, j))
+					day_mode[j] = DAY;
+			}
+		}
+	}
+
+	/**
+	 * Marks an employee as unavailable (forced day-off) for a range of days.
+	 *
+	 * @param employee the employee, from 0
+	 * @param from the first day, from 0
+	 * @param to the last day, included
+	 */
+	public void setUnavailable(int employee, int from, int to) {
+
+		if(employee < 0 || employee >= instance.getEmployees() || from < 0 || to >= instance.getDays() || from > to)
+			throw new IllegalArgumentException("Invalid unavailability of employee " + (employee+1));
+
+		for(int j = from; j <= to; j++) {
+			unavailable[employee][j] = true;
+			if(day_mode[j] == FROZEN)
+				day_mode[j] = EMPLOYEES;
+		}
+	}
+
+	/**
+	 * Seeds a population: the repaired previous schedule, the repaired final population of the previous
+	 * run, a few random schedules and repaired perturbations of the previous schedule for the rest.
+	 * The individuals are not evaluated.
+	 *
+	 * @param pop the population to fill
+	 */
+	public void seed(Population pop) {
+
+		int popSize = pop.getPopulationSize();
+		int n = 0;
+
+		Individual repaired = previous.copy();
+		this.repair(repaired);
+		pop.setIndividual(n++, repaired);
+
+		for(int k = 0; k < population.size() && n < popSize; k++) {
+			Individual id = population.get(k).copy();
+			this.repair(id);
+			pop.setIndividual(n++, id);
+		}
+
+		int random = (int) (RANDOM_RATE * popSize);
+		for(int k = 0; k < random && n < popSize; k++) {
+			Individual id = new Individual(instance);
+			id.createIndividual(rand);
+			this.repair(id);
+			pop.setIndividual(n++, id);
+		}
+
+		while(n < popSize) {
+			Individual id = repaired.copy();
+			// perturb a few of the affected days
+			int changes = 1 + rand.nextInt(Math.max(1, this.affectedDays()));
+			for(int k = 0; k < changes; k++)
+				this.mutateDay(id, this.randomAffectedDay());
+			pop.setIndividual(n++, id);
+		}
+		pop.setFeasibleSize(popSize);
+	}
+
+	/**
+	 * Mutates the affected days of the offspring only, each with probability p_mut.
+	 *
+	 * @param offspring The individual whose genes are to be mutated.
+	 * @param p_mut The probability of mutation for each affected day.
+	 * @return The mutated offspring.
+	 */
+	public Individual mutate(Individual offspring, double p_mut) {
+
+		for(int j = 0; j < day_mode.length; j++) {
+			if(day_mode[j] != FROZEN && rand.nextDouble() <= p_mut)
+				this.mutateDay(offspring, j);
+		}
+		return offspring;
+	}
+
+	/**
+	 * Repairs a schedule to meet the demand of every day and the unavailability of the employees.
+	 * Unavailable employees are given a day-off, then employees holding a shift assigned more times
+	 * than its demand are moved to the shifts missing on that day.
+	 *
+	 * @param id the individual to repair
+	 */
+	public void repair(Individual id) {
+		for(int j = 0; j < instance.getDays(); j++)
+			this.repairDay(id.writeDay(j), j);
+	}
+
+	// Repair one day of the schedule, the shifts of every employee on day j, changing as few shifts as possible
+	private void repairDay(int[] day, int j) {
+
+		int employees = day.length;
+		int[] count = new int[4];
+		for(int i = 0; i < employees; i++) {
+			if(unavailable[i][j])
+				day[i] = 0;
+			count[day[i]]++;
+		}
+
+		// visit the employees in random order, so that repairs are spread over the employees
+		int[] order = this.shuffled(employees);
+		for(int k = 0; k < employees; k++) {
+			int i = order[k];
+			int s = day[i];
+			if(count[s] <= instance.getDemand(s, j))
+				continue;
+			for(int t = 0; t < 4; t++) {
+				if(count[t] < instance.getDemand(t, j) && (t == 0 || !unavailable[i][j])) {
+					day[i] = t;
+					count[s]--;
+					count[t]++;
+					break;
+				}
+			}
+		}
+
+		for(int t = 0; t < 4; t++) {
+			if(count[t] != instance.getDemand(t, j))
+				throw new IllegalStateException("Day " + (j+1) + ": not enough available employees to meet the demand");
+		}
+	}
+
+	// Mutate one affected day according to its mode
+	private void mutateDay(Individual id, int j) {
+
+		if(j < 0)
+			return;
+		if(day_mode[j] == DAY) {
+			// reschedule the day and give day-offs back to unavailable employees
+			id.createGene(id, j, rand);
+			this.repairDay(id.writeDay(j), j);
+			return;
+		}
+
+		// swap the shifts of two available employees, one of them among the employees whose shift
+		// differs from the previous schedule (those that covered for the unavailable employees)
+		int[] day = id.getDay(j);
+		int[] old = previous.getDay(j);
+		List<Integer> changed = new ArrayList<>();
+		for(int i = 0; i < day.length; i++) {
+			if(!unavailable[i][j] && day[i] != old[i])
+				changed.add(i);
+		}
+		int i1 = changed.isEmpty() ? rand.nextInt(day.length) : changed.get(rand.nextInt(changed.size()));
+		if(unavailable[i1][j])
+			return;
+		for(int tries = 0; tries < day.length; tries++) {
+			int i2 = rand.nextInt(day.length);
+			if(!unavailable[i2][j] && day[i2] != day[i1]) {
+				day = id.writeDay(j);	// copied first if shared with a parent
+				int shift = day[i1];
+				day[i1] = day[i2];
+				day[i2] = shift;
+				return;
+			}
+		}
+	}
+
+	// Number of days that may be mutated
+	private int affectedDays() {
+
+		int days = 0;
+		for(int j = 0; j < day_mode.length; j++) {
+			if(day_mode[j] != FROZEN)
+				days++;
+		}
+		return days;
+	}
+
+	// A random day that may be mutated, -1 if there is none
+	private int randomAffectedDay() {
+
+		int days = this.affectedDays();
+		if(days == 0)
+			return -1;
+		int k = rand.nextInt(days);
+		for(int j = 0; j < day_mode.length; j++) {
+			if(day_mode[j] != FROZEN && k-- == 0)
+				return j;
+		}
+		return -1;
+	}
+
+	// Random permutation of 0..n-1
+	private int[] shuffled(int n) {
+
+		int[] order = new int[n];
+		for(int i = 0; i < n; i++)
+			order[i] = i;
+		for(int i = n - 1; i > 0; i--) {
+			int k = rand.nextInt(i + 1);
+			int tmp = order[i];
+			order[i] = order[k];
+			order[k] = tmp;
+		}
+		return order;
+	}
+
+	/*********************************************
+	* Setters and Getters
+	*********************************************/
+	// The employee (from 0) must be off on the day (from 0)
+	public boolean isUnavailable(int employee, int day) {
+		return unavailable[employee][day];
+	}
+
+	public Individual getPrevious() {
+		return previous;
+	}
+
+	public void setPopulation(List<Individual> population) {
+		this.population = population;
+	}
+
+	public int getDeviationWeight() {
+		return deviation_weight;
+	}
+
+	public void setDeviationWeight(int deviation_weight) {
+		this.deviation_weight = deviation_weight;
+	}
+
+	// Draw from the random number generator of the engine, so that a seeded run is reproducible
+	public void setRandom(Random rand) {
+		this.rand = rand;
+	}
+}